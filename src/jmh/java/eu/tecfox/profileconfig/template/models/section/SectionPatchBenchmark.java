@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.template.models.section;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link Section#patch(Section)} on sections with many repeated elements.
+ *
+ * <p>
+ *     Run with {@code ./gradlew jmh}.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionPatchBenchmark {
+
+    /**
+     * Number of elements in the template section.
+     */
+    @Param({"10", "100"})
+    private int elementCount;
+
+    /**
+     * Number of entries of each non-unique element in the profile section.
+     */
+    @Param({"10", "100", "500"})
+    private int repetitions;
+
+    private Section templateSection;
+    private Section profileSection;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        templateSection = new Section();
+        profileSection = new Section();
+        List<SectionElement> templateElements = new ArrayList<>();
+        List<SectionElement> profileElements = new ArrayList<>();
+        for (int i = 0; i < elementCount; i++) {
+            boolean unique = i % 2 == 0;
+            templateElements.add(element("uuid" + i, unique, null));
+            for (int j = 0; j < (unique ? 1 : repetitions); j++) {
+                profileElements.add(element("uuid" + i, unique, "Value " + j));
+            }
+        }
+        templateSection.setElements(templateElements);
+        profileSection.setElements(profileElements);
+    }
+
+    @Benchmark
+    public Section patch() {
+        templateSection.patch(profileSection);
+        return templateSection;
+    }
+
+    private static StringElement element(String identifier, boolean unique, String value) {
+        StringElement element = new StringElement();
+        element.setIdentifier(identifier);
+        element.setUnique(unique);
+        element.setKey(identifier);
+        element.setValue(value);
+        return element;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.template.models.section.elements;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of merging many entries into copies of one template {@link NestedElement},
+ * like a long work history merged with the template.
+ *
+ * <p>
+ *     Run with {@code ./gradlew jmh}.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedElementPatchBenchmark {
+
+    /**
+     * Number of values of the nested element.
+     */
+    @Param({"5", "20"})
+    private int valueCount;
+
+    /**
+     * Number of entries merged into copies of the template element.
+     */
+    @Param({"10", "500"})
+    private int entryCount;
+
+    private NestedElement templateElement;
+    private List<NestedElement> entries;
+
+    @Setup
+    public void setUp() {
+        templateElement = element(null);
+        entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(element("Value " + i));
+        }
+    }
+
+    @Benchmark
+    public List<NestedElement> patch() {
+        List<NestedElement> merged = new ArrayList<>(entries.size());
+        for (NestedElement entry: entries) {
+            NestedElement copy = templateElement.copy();
+            copy.patch(entry);
+            merged.add(copy);
+        }
+        return merged;
+    }
+
+    private NestedElement element(String value) {
+        NestedElement element = new NestedElement();
+        element.setIdentifier("nested");
+        StringElement key = new StringElement();
+        key.setIdentifier("key");
+        key.setValue(value);
+        element.setKey(key);
+        List<NestedValue> values = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            StringElement nestedValue = new StringElement();
+            nestedValue.setIdentifier("uuid" + i);
+            nestedValue.setKey("Value " + i);
+            nestedValue.setValue(value);
+            values.add(nestedValue);
+        }
+        element.setValue(values);
+        return element;
+    }
+}
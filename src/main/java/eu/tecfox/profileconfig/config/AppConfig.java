@@ -18,11 +18,14 @@ package eu.tecfox.profileconfig.config;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Configuration class for the application.
@@ -35,8 +38,11 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
  * @version 1.0
  */
 @Configuration
+@EnableAsync
+@EnableScheduling
 @EnableMongoAuditing
 @EnableDiscoveryClient
+@EnableConfigurationProperties(ReadRoutingProperties.class)
 @RequiredArgsConstructor
 public class AppConfig {
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import eu.tecfox.profileconfig.docxBuilder.models.RenderedPdf;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileChange;
+import eu.tecfox.profileconfig.profile.models.ProfileRevision;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes the application relies on.
+ *
+ * <p>
+ *     Indexes are created explicitly, because {@link Profile} inherits the fields
+ *     of {@link Template} and annotated indexes would be created on both collections.
+ *     All indexes are declared in {@link #indexes()}. Every query of the repositories
+ *     should be backed by one of them.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class IndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration changeLogRetention;
+
+    public IndexInitializer(MongoTemplate mongoTemplate,
+        @Value("${profile.change-log.retention:P30D}") Duration changeLogRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.changeLogRetention = changeLogRetention;
+    }
+
+    /**
+     * Method to create all indexes in the background once the application is ready.
+     *
+     * <p>
+     *     An index that cannot be created, e.g. because existing documents violate
+     *     a unique constraint, is logged and does not prevent the other indexes.
+     * </p>
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndexes() {
+        for (EntityIndex entityIndex: indexes()) {
+            try {
+                mongoTemplate.indexOps(entityIndex.entity()).ensureIndex(entityIndex.index());
+            } catch (DataAccessException e) {
+                log.error("Could not create index {} on {}.", entityIndex.index().getIndexOptions().get("name"),
+                    entityIndex.entity().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Declares all indexes.
+     *
+     * @return the indexes with the entity of their collection
+     */
+    List<EntityIndex> indexes() {
+        return List.of(
+            new EntityIndex(Template.class, new Index("key", Sort.Direction.ASC).unique().named("key_unique")),
+
+            new EntityIndex(Profile.class, new Index("userId", Sort.Direction.ASC).unique()
+                .partial(PartialIndexFilter.of(Criteria.where("userId").exists(true)))
+                .named("userId_unique")),
+            new EntityIndex(Profile.class, new Index("key", Sort.Direction.ASC)
+                .on("templateVersion", Sort.Direction.ASC).named("key_templateVersion")),
+            new EntityIndex(Profile.class, new Index("createdDate", Sort.Direction.ASC).named("createdDate")),
+            new EntityIndex(Profile.class, new Index("lastModifiedDate", Sort.Direction.ASC)
+                .named("lastModifiedDate")),
+            new EntityIndex(Profile.class, new Index("sections.elements.value", Sort.Direction.ASC)
+                .named("skills")),
+
+            new EntityIndex(ProfileChange.class, new Index("profileId", Sort.Direction.ASC)
+                .on("version", Sort.Direction.ASC).named("profileId_version")),
+            new EntityIndex(ProfileChange.class, new Index("createdDate", Sort.Direction.ASC)
+                .expire(changeLogRetention).named("createdDate_ttl")),
+
+            new EntityIndex(ProfileRevision.class, new Index("profileId", Sort.Direction.ASC)
+                .on("version", Sort.Direction.ASC).named("profileId_version")),
+
+            new EntityIndex(RenderedPdf.class, new Index("expiresAt", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("expiresAt").exists(true)))
+                .named("expiresAt"))
+        );
+    }
+
+    /**
+     * An index on the collection of an entity.
+     *
+     * @param entity the entity that defines the collection
+     * @param index the index
+     */
+    record EntityIndex(Class<?> entity, IndexDefinition index) { }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.mongodb.ReadPreference;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes the reads of endpoints to replica set members by their configured read preference.
+ *
+ * <p>
+ *     Reads that tolerate slightly stale data, like listing and searching profiles,
+ *     can be sent to secondaries to take load off the primary. Endpoints without a
+ *     configured read preference read from the primary. Reads that have to see a
+ *     preceding write, like reading a single profile after it was saved, do not go
+ *     through this class and use the primary template directly.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Component
+public class ReadRouting {
+
+    public static final String PROFILE_LIST = "profile-list";
+    public static final String PROFILE_SEARCH = "profile-search";
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationContext applicationContext;
+    private final Map<String, ReadPreference> readPreferences;
+    private final Map<ReadPreference, MongoTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that resolves the configured read preferences.
+     *
+     * @param mongoTemplate the template that reads from the primary
+     * @param applicationContext the context, to publish events and invoke callbacks of other templates
+     * @param properties the read preferences by endpoint
+     * @throws IllegalArgumentException if a read preference is unknown
+     */
+    public ReadRouting(MongoTemplate mongoTemplate, ApplicationContext applicationContext,
+        ReadRoutingProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.applicationContext = applicationContext;
+        this.readPreferences = properties.endpoints().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> ReadPreference.valueOf(entry.getValue())));
+    }
+
+    /**
+     * Method to get the operations to read data of an endpoint with.
+     *
+     * @param endpoint the name of the endpoint, e.g. {@link #PROFILE_LIST}
+     * @return the operations with the read preference of the endpoint
+     */
+    public MongoOperations forEndpoint(String endpoint) {
+        ReadPreference readPreference = readPreferences.getOrDefault(endpoint, ReadPreference.primary());
+        if (readPreference.equals(ReadPreference.primary())) {
+            return mongoTemplate;
+        }
+        return templates.computeIfAbsent(readPreference, this::createTemplate);
+    }
+
+    /**
+     * Creates a template that shares the database and the converter of the primary
+     * template. Entity callbacks and events are enabled, so stored profiles are restored
+     * on any template.
+     *
+     * @param readPreference the read preference
+     * @return the template
+     */
+    private MongoTemplate createTemplate(ReadPreference readPreference) {
+        MongoTemplate template = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(),
+            mongoTemplate.getConverter());
+        template.setReadPreference(readPreference);
+        template.setApplicationContext(applicationContext);
+        return template;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Read preferences of endpoints, see {@link ReadRouting}.
+ *
+ * @param endpoints the name of the read preference by endpoint, e.g. {@code secondaryPreferred}
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@ConfigurationProperties(prefix = "mongodb.read-routing")
+public record ReadRoutingProperties(Map<String, String> endpoints) {
+
+    public ReadRoutingProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+}
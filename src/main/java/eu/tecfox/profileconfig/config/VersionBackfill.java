@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.config;
+
+import java.util.List;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the version of templates and profiles that were written before they were versioned.
+ *
+ * <p>
+ *     Spring Data treats an entity with an ID but without a version as new and
+ *     inserts it, which fails for documents that already exist. The versions are
+ *     set in the background once the application is ready, like the indexes are
+ *     created by {@link IndexInitializer}.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VersionBackfill {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Method to set the version of all documents without one to 0.
+     *
+     * <p>
+     *     A collection that cannot be updated is logged and does not prevent the others.
+     * </p>
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVersions() {
+        for (Class<?> entity: List.of(Template.class, Profile.class)) {
+            try {
+                long updated = mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                    Update.update("version", 0L), entity).getModifiedCount();
+                if (updated > 0) {
+                    log.info("Set the version of {} documents of {}.", updated, entity.getSimpleName());
+                }
+            } catch (DataAccessException e) {
+                log.error("Could not set the versions of {}.", entity.getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -49,17 +49,28 @@ public class DocxToPdf {
 
         try (InputStream docxInputStream = new FileInputStream(docxPath);
             OutputStream outputStream = new FileOutputStream(pdfPath)) {
-            IConverter converter = LocalConverter.builder().build();
+            convert(docxInputStream, outputStream);
+        } catch (IOException e) {
+			throw new ApiRequestException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * Converts a docx document into a pdf document without touching the file system.
+	 * 
+	 * @param docxInputStream the docx document, is not closed.
+	 * @param outputStream target for the pdf document, is not closed.
+	 */
+	public static void convert(InputStream docxInputStream, OutputStream outputStream) {
 
+        IConverter converter = LocalConverter.builder().build();
+        try {
             converter.convert(docxInputStream).as(DocumentType.DOCX)
 											  .to(outputStream)
 											  .as(DocumentType.PDF)
 											  .execute();
-
+        } finally {
 			converter.shutDown();
-
-        } catch (IOException e) {
-			throw new ApiRequestException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
 }
\ No newline at end of file
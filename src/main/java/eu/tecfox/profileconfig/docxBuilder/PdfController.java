@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.docxBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import eu.tecfox.profileconfig.docxBuilder.models.RenderedPdf;
+import eu.tecfox.profileconfig.exception.ApiRequestException;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller that holds all endpoints related to rendered PDFs.
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/pdf")
+public class PdfController {
+
+    static final String DOCX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    private final PdfStorage pdfStorage;
+
+    /**
+     * Render a docx document to PDF and keep it, or reference the PDF if the document
+     * was rendered before.
+     *
+     * @param docx the docx document
+     * @return the stored PDF, its ID is used to download it
+     * @throws IOException if the document cannot be read
+     */
+    @PostMapping(consumes = DOCX_CONTENT_TYPE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RenderedPdf> storePdf(InputStream docx) throws IOException {
+        return ResponseEntity.ok().body(pdfStorage.store(docx));
+    }
+
+    /**
+     * Download a stored PDF. The content of a PDF never changes, so it may be cached.
+     *
+     * @param id the ID of the PDF
+     * @return the PDF
+     */
+    @GetMapping(value = "/{id}", produces = PdfStorage.CONTENT_TYPE)
+    public ResponseEntity<Resource> getPdf(@PathVariable("id") String id) {
+        Resource pdf = pdfStorage.load(id).orElseThrow(() ->
+            new ApiRequestException("PDF not found.", HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_PDF)
+            .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+            .eTag(id)
+            .body(pdf);
+    }
+
+    /**
+     * Remove a reference to a stored PDF.
+     *
+     * @param id the ID of the PDF
+     * @return 204: No Content
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releasePdf(@PathVariable("id") String id) {
+        if (!pdfStorage.release(id)) {
+            throw new ApiRequestException("PDF not found.", HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.docxBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import eu.tecfox.profileconfig.docxBuilder.models.RenderedPdf;
+import eu.tecfox.profileconfig.exception.ApiRequestException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores rendered PDFs in GridFS, deduplicated by the hash of their render input.
+ *
+ * <p>
+ *     Storing a render input that was rendered before only adds a reference to the
+ *     existing PDF, it is neither converted nor stored again. A PDF that is no longer
+ *     referenced expires after a retention period and is then removed together with
+ *     its GridFS file. GridFS files cannot expire by a TTL index, so expired PDFs
+ *     are removed by a scheduled cleanup.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class PdfStorage {
+
+    static final String CONTENT_TYPE = "application/pdf";
+
+    private static final int MAX_ATTACH_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final Duration retention;
+    private final BiConsumer<InputStream, OutputStream> converter;
+
+    @Autowired
+    public PdfStorage(MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate,
+        @Value("${pdf.storage.retention:P7D}") Duration retention) {
+        this(mongoTemplate, gridFsTemplate, retention, DocxToPdf::convert);
+    }
+
+    PdfStorage(MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate, Duration retention,
+        BiConsumer<InputStream, OutputStream> converter) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.retention = retention;
+        this.converter = converter;
+    }
+
+    /**
+     * Method to add a reference to the PDF of a docx document, rendering it only if
+     * no PDF of the same document is stored yet.
+     *
+     * @param docx the docx document
+     * @return the stored PDF, its ID is the hash of the document
+     * @throws IOException if the document cannot be read
+     */
+    public RenderedPdf store(InputStream docx) throws IOException {
+        byte[] input = docx.readAllBytes();
+        String hash = hash(input);
+        RenderedPdf pdf = mongoTemplate.findAndModify(byId(hash),
+            new Update().inc("references", 1).unset("expiresAt").setOnInsert("createdDate", LocalDateTime.now()),
+            FindAndModifyOptions.options().upsert(true).returnNew(true), RenderedPdf.class);
+        if (pdf.getFileId() != null) {
+            return pdf;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            converter.accept(new ByteArrayInputStream(input), output);
+        } catch (RuntimeException e) {
+            release(hash);
+            throw e;
+        }
+        ObjectId fileId = gridFsTemplate.store(new ByteArrayInputStream(output.toByteArray()), hash + ".pdf",
+            CONTENT_TYPE);
+        return attach(hash, fileId);
+    }
+
+    /**
+     * Method to attach a rendered file to the PDF of its render input.
+     *
+     * <p>
+     *     The file is discarded if the same input was rendered concurrently and the
+     *     other file was attached first. If the PDF was removed while it was rendered,
+     *     because all other references were released and it expired, it is stored
+     *     again with the reference of the caller.
+     * </p>
+     *
+     * @param hash the hash of the render input
+     * @param fileId the ID of the rendered file in GridFS
+     * @return the stored PDF
+     * @throws ApiRequestException if the PDF was removed repeatedly while it was attached
+     */
+    private RenderedPdf attach(String hash, ObjectId fileId) {
+        for (int attempt = 0; attempt < MAX_ATTACH_ATTEMPTS; attempt++) {
+            boolean attached = mongoTemplate.updateFirst(byId(hash).addCriteria(Criteria.where("fileId").is(null)),
+                Update.update("fileId", fileId), RenderedPdf.class).getModifiedCount() == 1;
+            RenderedPdf pdf = mongoTemplate.findById(hash, RenderedPdf.class);
+            if (pdf != null && (attached || pdf.getFileId() != null)) {
+                if (!attached) {
+                    gridFsTemplate.delete(Query.query(Criteria.where("_id").is(fileId)));
+                }
+                return pdf;
+            }
+            if (attached) {
+                // the PDF was removed together with the attached file
+                break;
+            }
+            mongoTemplate.upsert(byId(hash),
+                new Update().inc("references", 1).unset("expiresAt").setOnInsert("createdDate", LocalDateTime.now()),
+                RenderedPdf.class);
+        }
+        gridFsTemplate.delete(Query.query(Criteria.where("_id").is(fileId)));
+        throw new ApiRequestException("The PDF was removed while it was stored, please try again.",
+            HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Method to load a stored PDF without rendering it again.
+     *
+     * @param hash the hash of the render input
+     * @return optional with the PDF, if it is stored and completely rendered
+     */
+    public Optional<GridFsResource> load(String hash) {
+        RenderedPdf pdf = mongoTemplate.findById(hash, RenderedPdf.class);
+        if (pdf == null || pdf.getFileId() == null) {
+            return Optional.empty();
+        }
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(pdf.getFileId())));
+        return Optional.ofNullable(file).map(gridFsTemplate::getResource);
+    }
+
+    /**
+     * Method to remove a reference to a stored PDF. A PDF without references
+     * expires after the retention period.
+     *
+     * @param hash the hash of the render input
+     * @return true if the PDF was stored
+     */
+    public boolean release(String hash) {
+        RenderedPdf pdf = mongoTemplate.findAndModify(byId(hash).addCriteria(Criteria.where("references").gt(0)),
+            new Update().inc("references", -1), FindAndModifyOptions.options().returnNew(true), RenderedPdf.class);
+        if (pdf == null) {
+            return false;
+        }
+        if (pdf.getReferences() == 0) {
+            mongoTemplate.updateFirst(byId(hash).addCriteria(Criteria.where("references").is(0)),
+                Update.update("expiresAt", LocalDateTime.now().plus(retention)), RenderedPdf.class);
+        }
+        return true;
+    }
+
+    /**
+     * Method to remove all expired PDFs with their GridFS files.
+     */
+    @Scheduled(fixedDelayString = "${pdf.storage.cleanup-interval:PT1H}")
+    public void removeExpired() {
+        Query expired = Query.query(Criteria.where("references").is(0).and("expiresAt").lte(LocalDateTime.now()));
+        for (RenderedPdf candidate: mongoTemplate.find(expired, RenderedPdf.class)) {
+            // removes the PDF only if it was not referenced again in the meantime
+            RenderedPdf removed = mongoTemplate.findAndRemove(byId(candidate.getId()).addCriteria(
+                Criteria.where("references").is(0).and("expiresAt").lte(LocalDateTime.now())), RenderedPdf.class);
+            if (removed != null && removed.getFileId() != null) {
+                gridFsTemplate.delete(Query.query(Criteria.where("_id").is(removed.getFileId())));
+                log.debug("Removed expired PDF {}.", removed.getId());
+            }
+        }
+    }
+
+    private static Query byId(String hash) {
+        return Query.query(Criteria.where("id").is(hash));
+    }
+
+    private static String hash(byte[] input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash render input.", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.docxBuilder.models;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A rendered PDF that is kept for re-download.
+ *
+ * <p>
+ *     The PDF itself is stored in GridFS. Identical render inputs share one
+ *     rendered PDF, it is only removed once nothing references it anymore.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "renderedPdfs")
+public class RenderedPdf {
+
+    /**
+     * The hex encoded SHA-256 hash of the render input.
+     */
+    @Id
+    private String id;
+
+    /**
+     * The ID of the PDF in GridFS, {@code null} while the PDF is being rendered.
+     */
+    private ObjectId fileId;
+
+    /**
+     * The number of references to the PDF.
+     */
+    private int references;
+
+    private LocalDateTime createdDate;
+
+    /**
+     * The date after which the PDF is removed, only set if nothing references it.
+     */
+    private LocalDateTime expiresAt;
+}
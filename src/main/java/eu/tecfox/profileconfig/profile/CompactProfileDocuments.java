@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.List;
+
+import org.bson.Document;
+
+/**
+ * Converts the documents of profiles to their compact form.
+ *
+ * <p>
+ *     The compact form only holds what is needed to restore the values of a profile
+ *     from its template: the identifiers of sections and elements, the type hints of
+ *     elements and the values. Titles, keys, styles and flags are taken from the
+ *     template when the profile is read.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+final class CompactProfileDocuments {
+
+    static final String COMPACT_FIELD = "compact";
+
+    private static final String TYPE_FIELD = "_class";
+    private static final String IDENTIFIER_FIELD = "identifier";
+    private static final List<String> TEMPLATE_FIELDS = List.of("title", "style", "header", "footer");
+
+    private CompactProfileDocuments() {
+    }
+
+    /**
+     * Method to convert the document of a whole profile in place.
+     *
+     * @param profile the document of the profile
+     */
+    static void compactProfile(Document profile) {
+        TEMPLATE_FIELDS.forEach(profile::remove);
+        if (profile.get("sections") instanceof List<?> sections) {
+            profile.put("sections", sections.stream().map(CompactProfileDocuments::compactSection).toList());
+        }
+        profile.put(COMPACT_FIELD, true);
+    }
+
+    /**
+     * Method to convert the document of a section.
+     *
+     * @param section the document of the section
+     * @return the compact document
+     */
+    static Object compactSection(Object section) {
+        if (!(section instanceof Document document)) {
+            return section;
+        }
+        Document compact = new Document(IDENTIFIER_FIELD, document.get(IDENTIFIER_FIELD));
+        if (document.get("elements") instanceof List<?> elements) {
+            compact.put("elements", elements.stream().map(CompactProfileDocuments::compactElement).toList());
+        }
+        return compact;
+    }
+
+    /**
+     * Method to convert the document of an element.
+     *
+     * <p>
+     *     The key of a nested element holds a value and is kept, as well as the
+     *     nested values. Both are converted as well.
+     * </p>
+     *
+     * @param element the document of the element
+     * @return the compact document
+     */
+    static Object compactElement(Object element) {
+        if (!(element instanceof Document document)) {
+            return element;
+        }
+        Document compact = new Document();
+        if (document.containsKey(TYPE_FIELD)) {
+            compact.put(TYPE_FIELD, document.get(TYPE_FIELD));
+        }
+        compact.put(IDENTIFIER_FIELD, document.get(IDENTIFIER_FIELD));
+        if (document.get("key") instanceof Document key) {
+            compact.put("key", compactElement(key));
+        }
+        Object value = document.get("value");
+        if (value instanceof List<?> values && values.stream().allMatch(CompactProfileDocuments::isElement)) {
+            value = values.stream().map(CompactProfileDocuments::compactElement).toList();
+        }
+        if (value != null) {
+            compact.put("value", value);
+        }
+        return compact;
+    }
+
+    private static boolean isElement(Object value) {
+        return value instanceof Document document && document.containsKey(IDENTIFIER_FIELD);
+    }
+}
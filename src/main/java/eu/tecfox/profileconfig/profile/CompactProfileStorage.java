@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.TemplateService;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes profiles in the configured {@link ProfileStorageMode} and restores
+ * compact profiles from their template when they are read.
+ *
+ * <p>
+ *     A compact profile is restored with the cached template of its key, see
+ *     {@link Profile#mergedWith(Template)}. If the template changed since the
+ *     profile was written, the restored profile matches the current template, its
+ *     template version is kept, so it is still merged like any other outdated profile.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CompactProfileStorage implements BeforeSaveCallback<Profile>, AfterConvertCallback<Profile> {
+
+    private final TemplateService templateService;
+    private final ProfileStorageMode storageMode;
+
+    public CompactProfileStorage(TemplateService templateService,
+        @Value("${profile.storage.mode:full}") ProfileStorageMode storageMode) {
+        this.templateService = templateService;
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public Profile onBeforeSave(Profile entity, Document document, String collection) {
+        entity.setCompact(storageMode == ProfileStorageMode.COMPACT);
+        if (entity.isCompact()) {
+            CompactProfileDocuments.compactProfile(document);
+        } else {
+            document.put(CompactProfileDocuments.COMPACT_FIELD, false);
+        }
+        return entity;
+    }
+
+    @Override
+    public Profile onAfterConvert(Profile entity, Document document, String collection) {
+        if (!entity.isCompact()) {
+            return entity;
+        }
+        Optional<Template> template = entity.getKey() == null ? templateService.getTemplate()
+            : templateService.getTemplate(entity.getKey());
+        if (template.isEmpty()) {
+            log.warn("Could not restore profile {}, there is no template {}.", entity.getId(), entity.getKey());
+            return entity;
+        }
+        return entity.mergedWith(template.get());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileChange;
+import eu.tecfox.profileconfig.profile.models.ProfileDelta;
+import eu.tecfox.profileconfig.template.models.section.Section;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Change log of all profiles, used to send clients only the changes of a profile.
+ *
+ * <p>
+ *     Every {@link ProfileChangedEvent} is recorded with the sections that changed.
+ *     Entries expire after a retention period, see
+ *     {@link eu.tecfox.profileconfig.config.IndexInitializer}.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProfileChangeLog {
+
+    private final ProfileChangeRepository profileChangeRepository;
+
+    /**
+     * Method to record the sections that changed with a profile change.
+     *
+     * <p>
+     *     The change is already saved when the event is published, so a change that
+     *     cannot be recorded is only logged. Clients then receive the whole profile,
+     *     because the change log no longer covers every version.
+     * </p>
+     *
+     * @param event the change of the profile
+     */
+    @EventListener
+    public void onProfileChanged(ProfileChangedEvent event) {
+        try {
+            record(event);
+        } catch (RuntimeException e) {
+            log.error("Could not record change {} of profile {}.", event.current().getVersion(),
+                event.current().getId(), e);
+        }
+    }
+
+    private void record(ProfileChangedEvent event) {
+        Profile current = event.current();
+        if (current.getId() == null || current.getVersion() == null) {
+            return;
+        }
+        Map<String, String> previousHashes = event.previous() == null || event.previous().getSections() == null
+            ? Map.of()
+            : event.previous().getSections().stream().collect(Collectors.toMap(Section::getIdentifier,
+                ProfileContentHasher::hash, (first, second) -> first));
+
+        List<Section> changedSections = new ArrayList<>();
+        Set<String> removedSections = new LinkedHashSet<>(previousHashes.keySet());
+        for (Section section: current.getSections()) {
+            removedSections.remove(section.getIdentifier());
+            if (!ProfileContentHasher.hash(section).equals(previousHashes.get(section.getIdentifier()))) {
+                changedSections.add(section);
+            }
+        }
+        profileChangeRepository.save(
+            new ProfileChange(event.previous(), current, changedSections, List.copyOf(removedSections)));
+    }
+
+    /**
+     * Method to collect the changes of a profile since a version.
+     *
+     * <p>
+     *     The changes are only sent if the change log covers every version after the
+     *     given one. Otherwise, for example if entries expired or the profile was written
+     *     by a migration, the whole profile is sent.
+     * </p>
+     *
+     * @param current the current profile
+     * @param version the version of the profile known to the client
+     * @return the changes since the version
+     */
+    public ProfileDelta changesSince(Profile current, long version) {
+        if (current.getVersion() == null || version > current.getVersion()) {
+            return ProfileDelta.full(current);
+        }
+        if (version == current.getVersion()) {
+            return new ProfileDelta(current.getVersion(), current.getTemplateVersion(), false, List.of(), List.of());
+        }
+
+        Map<String, Section> changedSections = new LinkedHashMap<>();
+        Set<String> removedSections = new LinkedHashSet<>();
+        Long expectedVersion = version;
+        for (ProfileChange change: profileChangeRepository
+            .findByProfileIdAndVersionGreaterThanOrderByVersionAsc(current.getId(), version)) {
+            if (!Objects.equals(change.getFromVersion(), expectedVersion)) {
+                return ProfileDelta.full(current);
+            }
+            for (Section section: change.getChangedSections()) {
+                removedSections.remove(section.getIdentifier());
+                changedSections.put(section.getIdentifier(), section);
+            }
+            for (String identifier: change.getRemovedSections()) {
+                changedSections.remove(identifier);
+                removedSections.add(identifier);
+            }
+            expectedVersion = change.getVersion();
+        }
+        if (!current.getVersion().equals(expectedVersion)) {
+            return ProfileDelta.full(current);
+        }
+        return new ProfileDelta(current.getVersion(), current.getTemplateVersion(), false,
+            List.copyOf(changedSections.values()), List.copyOf(removedSections));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.List;
+
+import eu.tecfox.profileconfig.profile.models.ProfileChange;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository that holds all queries related to the change log of profiles.
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Repository
+public interface ProfileChangeRepository extends MongoRepository<ProfileChange, String> {
+
+    /**
+     * Method to find all changes of a profile after a version.
+     *
+     * @param profileId the id of the profile
+     * @param version the version known to the client
+     * @return the changes in order of their version
+     */
+    List<ProfileChange> findByProfileIdAndVersionGreaterThanOrderByVersionAsc(String profileId, Long version);
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+
+/**
+ * Event that is published after the content of a profile changed.
+ *
+ * <p>
+ *     Saves that do not change the content of a profile do not publish an event.
+ * </p>
+ *
+ * @param previous the stored profile before the change, {@code null} for new profiles
+ * @param current the saved profile
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record ProfileChangedEvent(Profile previous, Profile current) { }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+/**
+ * Computes a canonical hash of the content of a profile.
+ *
+ * <p>
+ *     The hash covers the sections and all values of a profile or of a single
+ *     section. Properties and map entries are serialized in a fixed order, so
+ *     equal content always results in the same hash.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+final class ProfileContentHasher {
+
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder()
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .findAndAddModules()
+        .build();
+
+    private ProfileContentHasher() {
+    }
+
+    /**
+     * Method to compute the content hash of a profile.
+     *
+     * @param profile the profile to hash
+     * @return the hex encoded SHA-256 hash of the sections of the profile
+     */
+    static String hash(Profile profile) {
+        return digest(profile.getSections());
+    }
+
+    /**
+     * Method to compute the content hash of a single section.
+     *
+     * @param section the section to hash
+     * @return the hex encoded SHA-256 hash of the section
+     */
+    static String hash(Section section) {
+        return digest(section);
+    }
+
+    /**
+     * Method to compute the content hash of a single element.
+     *
+     * @param element the element to hash
+     * @return the hex encoded SHA-256 hash of the element
+     */
+    static String hash(SectionElement element) {
+        return digest(element);
+    }
+
+    /**
+     * Method to compute the hash of everything of a profile except its sections.
+     *
+     * @param profile the profile to hash
+     * @return the hex encoded SHA-256 hash of the key, template version, title, style, header and footer
+     */
+    static String hashLayout(Profile profile) {
+        return digest(Arrays.asList(profile.getKey(), profile.getTemplateVersion(), profile.getTitle(),
+            profile.getStyle(), profile.getHeader(), profile.getFooter()));
+    }
+
+    private static String digest(Object value) {
+        try {
+            byte[] content = CANONICAL_MAPPER.writeValueAsBytes(value);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash profile content.", e);
+        }
+    }
+}
@@ -16,30 +16,50 @@
 
 package eu.tecfox.profileconfig.profile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.exception.BindingResultErrorFormatter;
 import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileDelta;
+import eu.tecfox.profileconfig.profile.models.ProfileImportReport;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
 import eu.tecfox.profileconfig.profile.models.ValidProfile;
 import eu.tecfox.profileconfig.template.TemplateService;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller that holds all endpoints related to profiles.
@@ -53,21 +73,44 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProfileController {
 
     private final ProfileService profileService;
+    private final ProfileWriteBuffer profileWriteBuffer;
+    private final ProfileChangeLog profileChangeLog;
+    private final ProfileImporter profileImporter;
+    private final ProfileRevisionHistory profileRevisionHistory;
     private final TemplateService templateService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Profile> getProfileByUserId(@PathVariable("id") String id) {
+    public ResponseEntity<Profile> getProfileByUserId(@PathVariable("id") String id,
+        @RequestParam(value = "fields", required = false) Set<String> fields,
+        @RequestParam(value = "sections", required = false) Set<String> sections) {
         // TODO secure this endpoint so only admins can use it. Normal users should only see their own profiles.
-        Profile profile = profileService.findByUserId(id).orElseThrow(() -> new ApiRequestException("User does not have a profile yet.",
-            HttpStatus.NOT_FOUND));
-        return ResponseEntity.ok().body(profile);
+        Optional<Profile> profile;
+        if (fields == null && sections == null) {
+            profile = profileWriteBuffer.findByUserId(id);
+        } else {
+            profileWriteBuffer.flush(id);
+            profile = profileService.findByUserId(id, fields, sections);
+        }
+        return ResponseEntity.ok().body(profile.orElseThrow(() -> new ApiRequestException("User does not have a profile yet.",
+            HttpStatus.NOT_FOUND)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Profile>> getProfilesByUserIds(@RequestBody List<String> ids,
+        @RequestParam(value = "fields", required = false) Set<String> fields,
+        @RequestParam(value = "sections", required = false) Set<String> sections) {
+        // TODO secure this endpoint so only admins can use it.
+        profileWriteBuffer.flush(ids);
+        return ResponseEntity.ok().body(profileService.findAllByUserIds(ids, fields, sections));
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Template> getProfile(@RequestParam(value = "merge", required = false) boolean merge) {
         // TODO get user id from session
         String userId = "";
-        Optional<Profile> profile = profileService.findByUserId(userId);
+        Optional<Profile> profile = profileWriteBuffer.findByUserId(userId);
         if (profile.isEmpty()) {
             Template template = templateService.getTemplate().orElseThrow(() ->
                 new ApiRequestException("You don't have a profile yet and there is currently no template available."));
@@ -80,6 +123,51 @@ public class ProfileController {
         return ResponseEntity.ok().body(userProfile);
     }
 
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Profile>> searchProfiles(@RequestParam("skill") String skill) {
+        // TODO secure this endpoint so only admins can use it.
+        return ResponseEntity.ok().body(profileService.findAllBySkill(skill));
+    }
+
+    @GetMapping(value = "/list", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listProfiles(
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        // TODO secure this endpoint so only admins can use it.
+        Stream<ProfileSummary> summaries = profileService.streamSummaries(after, limit);
+        ObjectWriter writer = objectMapper.writerFor(ProfileSummary.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = (OutputStream outputStream) -> {
+            try (summaries; JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                for (ProfileSummary summary: (Iterable<ProfileSummary>) summaries::iterator) {
+                    writer.writeValue(generator, summary);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(value = "/{id}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Profile> getProfileAsOf(@PathVariable("id") String id,
+        @RequestParam("at") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        // TODO secure this endpoint so only admins can use it.
+        Profile profile = profileService.findByUserId(id).orElseThrow(() ->
+            new ApiRequestException("User does not have a profile yet.", HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok().body(profileRevisionHistory.asOf(profile.getId(), at).orElseThrow(() ->
+            new ApiRequestException("There is no revision of the profile at that date.", HttpStatus.NOT_FOUND)));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProfileDelta> getChanges(@RequestParam("since") long since) {
+        String userId = ""; // TODO get user id from jwt
+        profileWriteBuffer.flush(userId);
+        Profile profile = profileService.findByUserId(userId).orElseThrow(() ->
+            new ApiRequestException("User does not have a profile yet.", HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok().body(profileChangeLog.changesSince(profile, since));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Profile> saveProfile(@RequestBody @Validated(ValidProfile.class) Profile profile, BindingResult bindingResult)
         throws JsonProcessingException {
@@ -87,7 +175,43 @@ public class ProfileController {
             throw new ApiRequestException(BindingResultErrorFormatter.getErrorMessagesAsJson(bindingResult));
         }
         String userId = ""; // TODO get user id from jwt
-        // TODO get user id from session and load his profile from db and update profile id, so it can only affect his own profile
-        return ResponseEntity.ok().body(profileService.save(profile));
+        profile.setUserId(userId);
+        return ResponseEntity.ok().body(profileWriteBuffer.buffer(profile));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProfileImportReport> importProfiles(InputStream input) throws IOException {
+        // TODO secure this endpoint so only admins can use it.
+        return ResponseEntity.ok().body(profileImporter.importProfiles(input));
+    }
+
+    @PatchMapping(value = "/sections/{sectionId}", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Section> updateSection(@PathVariable("sectionId") String sectionId,
+        @RequestBody Section section) {
+        String userId = ""; // TODO get user id from jwt
+        section.setIdentifier(sectionId);
+        profileWriteBuffer.flush(userId);
+        return ResponseEntity.ok().body(profileService.updateSection(userId, section));
+    }
+
+    @PatchMapping(value = "/sections/{sectionId}/elements/{elementId}", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Section> updateElement(@PathVariable("sectionId") String sectionId,
+        @PathVariable("elementId") String elementId, @RequestBody SectionElement element) {
+        String userId = ""; // TODO get user id from jwt
+        element.setIdentifier(elementId);
+        profileWriteBuffer.flush(userId);
+        return ResponseEntity.ok().body(profileService.updateElement(userId, sectionId, element));
+    }
+
+    @PostMapping(value = "/sections/{sectionId}/elements", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Section> addElement(@PathVariable("sectionId") String sectionId,
+        @RequestBody SectionElement element) {
+        String userId = ""; // TODO get user id from jwt
+        profileWriteBuffer.flush(userId);
+        return ResponseEntity.ok().body(profileService.addElement(userId, sectionId, element));
     }
 }
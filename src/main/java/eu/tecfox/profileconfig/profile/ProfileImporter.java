@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileImport;
+import eu.tecfox.profileconfig.profile.models.ProfileImportReport;
+import eu.tecfox.profileconfig.profile.models.ProfileImportReport.RecordError;
+import eu.tecfox.profileconfig.profile.models.ValidProfile;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports many new profiles at once.
+ *
+ * <p>
+ *     The records are read one by one from NDJSON or a JSON array, so the import is
+ *     never held in memory as a whole. Records are collected into batches, validated
+ *     in parallel against the cached templates and written with a single unordered
+ *     bulk insert per batch. Records that are invalid or cannot be written are
+ *     reported and do not prevent the others.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Service
+public class ProfileImporter {
+
+    private final ProfileRepository profileRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader reader;
+    private final int batchSize;
+
+    public ProfileImporter(ProfileRepository profileRepository, Validator validator,
+        ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+        @Value("${profile.import.batch-size:500}") int batchSize) {
+        this.profileRepository = profileRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.reader = objectMapper.readerFor(ProfileImport.class);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method to import profiles from NDJSON or a JSON array of {@link ProfileImport} records.
+     *
+     * <p>
+     *     Reading stops at the first record that cannot be parsed, because the
+     *     position of the next record is unknown. All records before it are imported.
+     * </p>
+     *
+     * @param input the records to import
+     * @return the number of imported profiles and the errors of all other records
+     * @throws IOException if the input cannot be read
+     */
+    public ProfileImportReport importProfiles(InputStream input) throws IOException {
+        List<RecordError> errors = new ArrayList<>();
+        Set<String> userIds = new HashSet<>();
+        List<IndexedRecord> batch = new ArrayList<>(batchSize);
+        int imported = 0;
+        int index = 0;
+        try (MappingIterator<ProfileImport> records = reader.readValues(input)) {
+            while (records.hasNextValue()) {
+                ProfileImport profileImport = records.nextValue();
+                batch.add(new IndexedRecord(index++, profileImport));
+                if (batch.size() == batchSize) {
+                    imported += writeBatch(batch, userIds, errors);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            errors.add(new RecordError(index, null, "Record could not be read: " + e.getOriginalMessage()));
+        }
+        imported += writeBatch(batch, userIds, errors);
+        errors.sort(Comparator.comparingInt(RecordError::index));
+        return new ProfileImportReport(imported, errors);
+    }
+
+    /**
+     * Method to validate and insert a batch of records.
+     *
+     * @param batch the records
+     * @param userIds the users of all previous records, to detect duplicates in the import
+     * @param errors collects the errors of the records
+     * @return the number of inserted profiles
+     */
+    private int writeBatch(List<IndexedRecord> batch, Set<String> userIds, List<RecordError> errors) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Optional<String>> violations = batch.parallelStream().map(this::validate).toList();
+
+        List<IndexedRecord> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            IndexedRecord indexedRecord = batch.get(i);
+            String userId = indexedRecord.record().userId();
+            if (violations.get(i).isPresent()) {
+                errors.add(new RecordError(indexedRecord.index(), userId, violations.get(i).get()));
+            } else if (!userIds.add(userId)) {
+                errors.add(new RecordError(indexedRecord.index(), userId, "User appears more than once in the import."));
+            } else {
+                valid.add(indexedRecord);
+            }
+        }
+
+        List<Profile> profiles = valid.stream().map(ProfileImporter::prepare).toList();
+        Map<Integer, String> failed = profileRepository.insertAll(profiles);
+        int inserted = 0;
+        for (int i = 0; i < valid.size(); i++) {
+            if (failed.containsKey(i)) {
+                errors.add(new RecordError(valid.get(i).index(), valid.get(i).record().userId(), failed.get(i)));
+            } else {
+                eventPublisher.publishEvent(new ProfileChangedEvent(null, profiles.get(i)));
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private Optional<String> validate(IndexedRecord indexedRecord) {
+        ProfileImport profileImport = indexedRecord.record();
+        if (profileImport.userId() == null || profileImport.userId().isBlank()) {
+            return Optional.of("Record does not contain a user id.");
+        }
+        if (profileImport.profile() == null) {
+            return Optional.of("Record does not contain a profile.");
+        }
+        Set<ConstraintViolation<Profile>> violations = validator.validate(profileImport.profile(), ValidProfile.class);
+        if (violations.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(" ")));
+    }
+
+    /**
+     * Prepares a new profile for the bulk insert, which neither generates IDs nor
+     * initializes versions.
+     *
+     * @param indexedRecord the record of the profile
+     * @return the profile to insert
+     */
+    private static Profile prepare(IndexedRecord indexedRecord) {
+        Profile profile = indexedRecord.record().profile();
+        profile.setId(new ObjectId().toHexString());
+        profile.setVersion(0L);
+        profile.setUserId(indexedRecord.record().userId());
+        profile.setContentHash(ProfileContentHasher.hash(profile));
+        return profile;
+    }
+
+    private record IndexedRecord(int index, ProfileImport record) { }
+}
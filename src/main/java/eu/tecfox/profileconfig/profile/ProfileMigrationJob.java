@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileMigration;
+import eu.tecfox.profileconfig.template.TemplateSavedEvent;
+import eu.tecfox.profileconfig.template.TemplateService;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that merges all profiles with a new template.
+ *
+ * <p>
+ *     Started whenever a template is saved and resumed after a restart.
+ *     Profiles are read from a database cursor, merged in parallel batches and
+ *     written with bulk writes. The progress is stored as {@link ProfileMigration}
+ *     after each batch.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProfileMigrationJob {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_PASSES = 3;
+
+    private static final long STOPPED = -1;
+
+    private final ProfileRepository profileRepository;
+    private final ProfileMigrationRepository profileMigrationRepository;
+    private final ProfileService profileService;
+    private final TemplateService templateService;
+
+    /**
+     * Method to start the migration when a template was saved.
+     *
+     * @param event the event with the saved template
+     */
+    @Async
+    @EventListener
+    public void onTemplateSaved(TemplateSavedEvent event) {
+        migrate(event.template());
+    }
+
+    /**
+     * Method to resume unfinished migrations of all templates after startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeMigration() {
+        templateService.getTemplates().forEach(this::migrate);
+    }
+
+    /**
+     * Method to merge all outdated profiles with a template.
+     *
+     * <p>
+     *     Continues after the last checkpoint of the template version. Stops if
+     *     the template is replaced by a newer version, because the migration
+     *     of the newer version takes over.
+     *     Profiles that could not be merged or were changed while they were merged
+     *     stay outdated, so all outdated profiles are streamed again. The migration
+     *     is only completed once a pass has no failures. If failures remain after
+     *     {@link #MAX_PASSES} passes, the migration stays open and is resumed from
+     *     the start after the next restart.
+     * </p>
+     *
+     * @param template the template to merge the profiles with
+     */
+    synchronized void migrate(Template template) {
+        ProfileMigration migration = profileMigrationRepository.findById(ProfileMigration.idOf(template))
+            .orElseGet(() -> new ProfileMigration(template));
+        if (migration.isCompleted()) {
+            return;
+        }
+
+        for (int pass = 1; pass <= MAX_PASSES; pass++) {
+            long failed = migrateOutdated(template, migration);
+            if (failed == STOPPED) {
+                return;
+            }
+            if (failed == 0) {
+                migration.complete();
+                profileMigrationRepository.save(migration);
+                return;
+            }
+            log.warn("{} profiles could not be merged with template {} in pass {}.", failed, migration.getId(), pass);
+            migration.restart();
+            profileMigrationRepository.save(migration);
+        }
+        log.error("Migration {} is not completed, profiles could not be merged after {} passes.",
+            migration.getId(), MAX_PASSES);
+    }
+
+    /**
+     * Method to merge the outdated profiles after the last checkpoint once.
+     *
+     * @param template the template to merge the profiles with
+     * @param migration the progress of the migration
+     * @return the number of profiles that could not be merged or written, or
+     *     {@link #STOPPED} if the template was replaced by a newer version
+     */
+    private long migrateOutdated(Template template, ProfileMigration migration) {
+        long failed = 0;
+        try (Stream<Profile> profiles = profileRepository.streamOutdated(template.getKey(), template.getVersion(),
+            migration.getLastProfileId())) {
+            Iterator<Profile> iterator = profiles.iterator();
+            while (iterator.hasNext()) {
+                if (!isCurrent(template)) {
+                    return STOPPED;
+                }
+                List<Profile> batch = new ArrayList<>(BATCH_SIZE);
+                while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(iterator.next());
+                }
+                List<Profile> mergedProfiles = batch.parallelStream()
+                    .map(profile -> merge(profile, template))
+                    .filter(Objects::nonNull)
+                    .toList();
+                int replaced = profileRepository.replaceAllVersioned(mergedProfiles);
+                if (replaced < mergedProfiles.size()) {
+                    log.info("{} profiles were changed while they were merged with template {}.",
+                        mergedProfiles.size() - replaced, migration.getId());
+                }
+
+                failed += batch.size() - replaced;
+                migration.checkpoint(batch.get(batch.size() - 1).getId(), batch.size(), batch.size() - replaced);
+                profileMigrationRepository.save(migration);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Method to merge a single profile.
+     *
+     * @param profile the profile to merge
+     * @param template the template to merge with
+     * @return the merged profile or {@code null} if it cannot be merged
+     */
+    private Profile merge(Profile profile, Template template) {
+        try {
+            return profileService.mergeWithTemplate(profile, template);
+        } catch (RuntimeException e) {
+            log.warn("Could not merge profile {} with template {}.", profile.getId(), ProfileMigration.idOf(template), e);
+            return null;
+        }
+    }
+
+    private boolean isCurrent(Template template) {
+        return (template.getKey() == null ? templateService.getTemplate() : templateService.getTemplate(template.getKey()))
+            .map(Template::getVersion)
+            .filter(version -> version.equals(template.getVersion()))
+            .isPresent();
+    }
+}
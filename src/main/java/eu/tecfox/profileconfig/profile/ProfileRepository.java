@@ -30,6 +30,6 @@ import org.springframework.stereotype.Repository;
  * @version 1.0
  */
 @Repository
-public interface ProfileRepository extends MongoRepository<Profile, String > {
+public interface ProfileRepository extends MongoRepository<Profile, String >, ProfileRepositoryCustom {
     Optional<Profile> findByUserId(String id);
 }
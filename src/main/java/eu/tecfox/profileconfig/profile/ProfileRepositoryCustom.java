@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+/**
+ * Custom queries of the {@link ProfileRepository} that cannot be derived from method names.
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public interface ProfileRepositoryCustom {
+
+    /**
+     * Finds the profile of a user with only some of its fields and sections.
+     *
+     * <p>
+     *     Fields and sections are projected by the database, so the other parts of the
+     *     profile are neither read nor transferred. The id, key and versions of the profile
+     *     are always included.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return optional with the projected profile, if it exists
+     */
+    Optional<Profile> findByUserId(String userId, Collection<String> fields, Collection<String> sectionIdentifiers);
+
+    /**
+     * Find the profiles of many users with a single query, optionally with only some
+     * of their fields and sections.
+     *
+     * @param userIds the ids of the users
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return the profiles that exist, in no particular order
+     */
+    List<Profile> findAllByUserIds(Collection<String> userIds, Collection<String> fields,
+        Collection<String> sectionIdentifiers);
+
+    /**
+     * Method to find all profiles that contain a value in any of their elements,
+     * e.g. a programming language or tool. Reads from the members configured for
+     * {@link eu.tecfox.profileconfig.config.ReadRouting#PROFILE_SEARCH}.
+     *
+     * @param skill the value to search for
+     * @return all profiles that contain the value
+     */
+    List<Profile> findAllBySkill(String skill);
+
+    /**
+     * Streams summaries of all profiles from a database cursor, ordered by ID.
+     * The stream has to be closed after use.
+     *
+     * <p>
+     *     Only the fields of the summary are read. Pages are requested with the ID of
+     *     the last profile of the previous page, so every page is an index range scan.
+     *     Reads from the members configured for
+     *     {@link eu.tecfox.profileconfig.config.ReadRouting#PROFILE_LIST}.
+     * </p>
+     *
+     * @param afterId only profiles with a greater ID are returned, may be {@code null}
+     * @param limit the maximum number of profiles
+     * @return a stream of profile summaries
+     */
+    Stream<ProfileSummary> streamSummaries(String afterId, int limit);
+
+    /**
+     * Streams all profiles of a template from a database cursor instead of loading
+     * them at once. The stream has to be closed after use.
+     *
+     * @param templateKey the key of the template
+     * @return a stream of all profiles of the template
+     */
+    Stream<Profile> streamByTemplateKey(String templateKey);
+
+    /**
+     * Streams all profiles of a template that were not merged with a template version yet,
+     * ordered by ID. The stream has to be closed after use.
+     *
+     * @param templateKey the key of the template
+     * @param templateVersion the version of the template
+     * @param afterId only profiles with a greater ID are returned, may be {@code null}
+     * @return a stream of outdated profiles
+     */
+    Stream<Profile> streamOutdated(String templateKey, Long templateVersion, String afterId);
+
+    /**
+     * Inserts multiple new profiles in a single unordered bulk write.
+     *
+     * <p>
+     *     A profile that cannot be inserted, e.g. because the user already has a
+     *     profile, does not prevent the others.
+     * </p>
+     *
+     * @param profiles the profiles to insert
+     * @return the error messages of the profiles that were not inserted, by their index in the list
+     */
+    Map<Integer, String> insertAll(List<Profile> profiles);
+
+    /**
+     * Replaces multiple profiles in a single bulk write.
+     *
+     * <p>
+     *     A profile is only replaced if its version was not changed in the
+     *     meantime. The version of each replaced profile is incremented.
+     * </p>
+     *
+     * @param profiles the profiles to replace
+     * @return the number of replaced profiles
+     */
+    int replaceAllVersioned(List<Profile> profiles);
+
+    /**
+     * Replaces a single section of a profile.
+     *
+     * <p>
+     *     Like all targeted updates, the profile is only updated if its version was not
+     *     changed in the meantime. The version is incremented and the content hash is
+     *     removed.
+     * </p>
+     *
+     * @param profile the stored profile
+     * @param section the new section, identified by its identifier
+     * @return optional with the updated profile, empty if the profile was changed in the meantime
+     */
+    Optional<Profile> replaceSection(Profile profile, Section section);
+
+    /**
+     * Replaces a single unique element of a section of a profile.
+     *
+     * @param profile the stored profile
+     * @param sectionIdentifier the identifier of the section
+     * @param element the new element, identified by its identifier
+     * @return optional with the updated profile, empty if the profile was changed in the meantime
+     */
+    Optional<Profile> replaceElement(Profile profile, String sectionIdentifier, SectionElement element);
+
+    /**
+     * Inserts an element into a section of a profile.
+     *
+     * @param profile the stored profile
+     * @param sectionIdentifier the identifier of the section
+     * @param element the element to insert
+     * @param position the position of the element in the section
+     * @return optional with the updated profile, empty if the profile was changed in the meantime
+     */
+    Optional<Profile> insertElement(Profile profile, String sectionIdentifier, SectionElement element, int position);
+}
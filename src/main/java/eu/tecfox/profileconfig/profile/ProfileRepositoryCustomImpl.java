@@ -0,0 +1,317 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.mongodb.ErrorCategory;
+import eu.tecfox.profileconfig.config.ReadRouting;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+import lombok.RequiredArgsConstructor;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.TypeInformation;
+
+/**
+ * Implementation of the {@link ProfileRepositoryCustom} interface.
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class ProfileRepositoryCustomImpl implements ProfileRepositoryCustom {
+
+    /**
+     * Fields that are always projected, they identify the profile and are needed to restore it.
+     */
+    private static final List<String> IDENTIFYING_FIELDS =
+        List.of("userId", "key", "version", "templateVersion", CompactProfileDocuments.COMPACT_FIELD);
+
+    private final MongoTemplate mongoTemplate;
+    private final ProfileValueCompression valueCompression;
+    private final ReadRouting readRouting;
+
+    @Override
+    public Optional<Profile> findByUserId(String userId, Collection<String> fields,
+        Collection<String> sectionIdentifiers) {
+        return Optional.ofNullable(mongoTemplate.aggregate(projectedAggregation(Criteria.where("userId").is(userId),
+            fields, sectionIdentifiers), Profile.class).getUniqueMappedResult());
+    }
+
+    @Override
+    public List<Profile> findAllByUserIds(Collection<String> userIds, Collection<String> fields,
+        Collection<String> sectionIdentifiers) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return mongoTemplate.aggregate(projectedAggregation(Criteria.where("userId").in(userIds),
+            fields, sectionIdentifiers), Profile.class).getMappedResults();
+    }
+
+    @Override
+    public List<Profile> findAllBySkill(String skill) {
+        return readRouting.forEndpoint(ReadRouting.PROFILE_SEARCH)
+            .find(skillQuery(skill), Profile.class);
+    }
+
+    @Override
+    public Stream<ProfileSummary> streamSummaries(String afterId, int limit) {
+        return readRouting.forEndpoint(ReadRouting.PROFILE_LIST)
+            .stream(summariesQuery(afterId, limit), ProfileSummary.class, mongoTemplate.getCollectionName(Profile.class));
+    }
+
+    @Override
+    public Stream<Profile> streamByTemplateKey(String templateKey) {
+        return mongoTemplate.stream(Query.query(templateKeyCriteria(templateKey)), Profile.class);
+    }
+
+    @Override
+    public Stream<Profile> streamOutdated(String templateKey, Long templateVersion, String afterId) {
+        return mongoTemplate.stream(outdatedQuery(templateKey, templateVersion, afterId), Profile.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Profile> profiles) {
+        if (profiles.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Profile.class).insert(profiles).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> errors = new HashMap<>();
+            e.getErrors().forEach(error -> errors.put(error.getIndex(),
+                ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                    ? "User already has a profile." : error.getMessage()));
+            return errors;
+        }
+    }
+
+    @Override
+    public int replaceAllVersioned(List<Profile> profiles) {
+        if (profiles.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Profile.class);
+        for (Profile profile: profiles) {
+            Long version = profile.getVersion();
+            profile.setVersion(version == null ? 0 : version + 1);
+            bulkOperations.replaceOne(Query.query(Criteria.where("id").is(profile.getId()).and("version").is(version)),
+                profile);
+        }
+        return bulkOperations.execute().getModifiedCount();
+    }
+
+    @Override
+    public Optional<Profile> replaceSection(Profile profile, Section section) {
+        Update update = new Update()
+            .set("sections.$[section]", toSectionDocument(profile, section))
+            .filterArray(Criteria.where("section.identifier").is(section.getIdentifier()));
+        return updateVersioned(profile, update);
+    }
+
+    @Override
+    public Optional<Profile> replaceElement(Profile profile, String sectionIdentifier, SectionElement element) {
+        Update update = new Update()
+            .set("sections.$[section].elements.$[element]", toElementDocument(profile, element))
+            .filterArray(Criteria.where("section.identifier").is(sectionIdentifier))
+            .filterArray(Criteria.where("element.identifier").is(element.getIdentifier()));
+        return updateVersioned(profile, update);
+    }
+
+    @Override
+    public Optional<Profile> insertElement(Profile profile, String sectionIdentifier, SectionElement element,
+        int position) {
+        Update update = new Update()
+            .filterArray(Criteria.where("section.identifier").is(sectionIdentifier));
+        update.push("sections.$[section].elements").atPosition(position).value(toElementDocument(profile, element));
+        return updateVersioned(profile, update);
+    }
+
+    /**
+     * Applies a targeted update to a profile, if its version was not changed in the meantime.
+     *
+     * <p>
+     *     Increments the version, removes the content hash, because it no longer matches
+     *     the content, and sets the last modified date, because auditing only applies
+     *     to saved entities.
+     * </p>
+     *
+     * @param profile the stored profile
+     * @param update the update to apply
+     * @return optional with the updated profile, empty if the profile was changed in the meantime
+     */
+    private Optional<Profile> updateVersioned(Profile profile, Update update) {
+        update.inc("version", 1)
+            .unset("contentHash")
+            .set("lastModifiedDate", LocalDateTime.now());
+        Query query = Query.query(Criteria.where("id").is(profile.getId()).and("version").is(profile.getVersion()));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), Profile.class));
+    }
+
+    /**
+     * Converts a section or element to a document with type hints, so the polymorphic
+     * elements can be read again.
+     *
+     * @param value the section or element
+     * @return the converted document
+     */
+    private Object toDocument(Object value) {
+        return mongoTemplate.getConverter().convertToMongoType(value, TypeInformation.OBJECT);
+    }
+
+    /**
+     * Converts a section to a document in the form the profile is stored in.
+     *
+     * @param profile the stored profile
+     * @param section the section
+     * @return the converted document
+     */
+    private Object toSectionDocument(Profile profile, Section section) {
+        Object document = valueCompression.compressSection(toDocument(section));
+        return profile.isCompact() ? CompactProfileDocuments.compactSection(document) : document;
+    }
+
+    /**
+     * Converts an element to a document in the form the profile is stored in.
+     *
+     * @param profile the stored profile
+     * @param element the element
+     * @return the converted document
+     */
+    private Object toElementDocument(Profile profile, SectionElement element) {
+        Object document = valueCompression.compressElement(toDocument(element));
+        return profile.isCompact() ? CompactProfileDocuments.compactElement(document) : document;
+    }
+
+    /**
+     * Builds an aggregation of the matching profiles that projects the fields and sections.
+     *
+     * @param criteria the criteria of the profiles
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return the aggregation
+     */
+    private static TypedAggregation<Profile> projectedAggregation(Criteria criteria, Collection<String> fields,
+        Collection<String> sectionIdentifiers) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        AggregationExpression sections = sectionIdentifiers == null ? null : sectionFilter(sectionIdentifiers);
+        if (fields != null) {
+            List<String> included = new ArrayList<>(IDENTIFYING_FIELDS);
+            fields.stream()
+                .filter(field -> !included.contains(field) && !(sections != null && field.equals("sections")))
+                .forEach(included::add);
+            operations.add(sections == null ? Aggregation.project(included.toArray(String[]::new))
+                : Aggregation.project(included.toArray(String[]::new)).and(sections).as("sections"));
+        } else if (sections != null) {
+            operations.add(Aggregation.addFields().addField("sections").withValueOf(sections).build());
+        }
+        return Aggregation.newAggregation(Profile.class, operations);
+    }
+
+    /**
+     * Builds the query of {@link #findAllBySkill(String)}.
+     *
+     * @param skill the value of the skill
+     * @return the query
+     */
+    public static Query skillQuery(String skill) {
+        return Query.query(Criteria.where("sections.elements.value").is(skill));
+    }
+
+    /**
+     * Builds the query of {@link #streamSummaries(String, int)}.
+     *
+     * @param afterId the id after which the summaries start, may be null
+     * @param limit the maximum number of summaries
+     * @return the query
+     */
+    public static Query summariesQuery(String afterId, int limit) {
+        Query query = afterId == null ? new Query() : Query.query(Criteria.where("id").gt(afterId));
+        query.with(Sort.by("id")).limit(limit);
+        query.fields().include("userId", "key", "version", "templateVersion", "lastModifiedDate");
+        return query;
+    }
+
+    /**
+     * Builds the query of {@link #streamOutdated(String, Long, String)}.
+     *
+     * @param templateKey the key of the template
+     * @param templateVersion the current version of the template
+     * @param afterId the id after which the profiles start, may be null
+     * @return the query
+     */
+    public static Query outdatedQuery(String templateKey, Long templateVersion, String afterId) {
+        Criteria criteria = templateKeyCriteria(templateKey).and("templateVersion").ne(templateVersion);
+        if (afterId != null) {
+            criteria = criteria.and("id").gt(afterId);
+        }
+        return Query.query(criteria).with(Sort.by("id"));
+    }
+
+    /**
+     * Filters the sections of a profile by their identifiers.
+     *
+     * @param sectionIdentifiers the identifiers of the sections to keep
+     * @return the expression that results in the filtered sections
+     */
+    private static AggregationExpression sectionFilter(Collection<String> sectionIdentifiers) {
+        Document condition = new Document("$in", List.of("$$section.identifier", List.copyOf(sectionIdentifiers)));
+        return context -> new Document("$filter", new Document("input", "$sections")
+            .append("as", "section")
+            .append("cond", condition));
+    }
+
+    /**
+     * Matches all profiles of a template. Profiles without a key belong to the default template.
+     *
+     * @param templateKey the key of the template
+     * @return the criteria
+     */
+    private static Criteria templateKeyCriteria(String templateKey) {
+        if (templateKey == null || Template.DEFAULT_KEY.equals(templateKey)) {
+            return Criteria.where("key").in(Template.DEFAULT_KEY, null);
+        }
+        return Criteria.where("key").is(templateKey);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileRevision;
+import eu.tecfox.profileconfig.profile.models.ProfileRevision.ElementChange;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revision history of all profiles.
+ *
+ * <p>
+ *     Every {@link ProfileChangedEvent} is recorded as a diff to the previous revision,
+ *     with the changed elements keyed by their identifier. Every few revisions, and
+ *     whenever the previous revision is unknown or the layout of the profile changed,
+ *     the whole profile is stored as a snapshot instead. A past version is restored
+ *     from the latest snapshot before it and the diffs up to it, so restoring never
+ *     applies more diffs than the snapshot interval.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ProfileRevisionHistory {
+
+    private final ProfileRevisionRepository profileRevisionRepository;
+    private final int snapshotInterval;
+
+    public ProfileRevisionHistory(ProfileRevisionRepository profileRevisionRepository,
+        @Value("${profile.revisions.snapshot-interval:20}") int snapshotInterval) {
+        this.profileRevisionRepository = profileRevisionRepository;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Method to record a new revision of a changed profile.
+     *
+     * <p>
+     *     The change is already saved when the event is published, so a revision that
+     *     cannot be recorded is only logged. The next revision of the profile is then
+     *     stored as a snapshot, because it does not follow the latest recorded revision.
+     * </p>
+     *
+     * @param event the change of the profile
+     */
+    @EventListener
+    public void onProfileChanged(ProfileChangedEvent event) {
+        try {
+            record(event);
+        } catch (RuntimeException e) {
+            log.error("Could not record revision {} of profile {}.", event.current().getVersion(),
+                event.current().getId(), e);
+        }
+    }
+
+    private void record(ProfileChangedEvent event) {
+        Profile previous = event.previous();
+        Profile current = event.current();
+        if (current.getId() == null || current.getVersion() == null) {
+            return;
+        }
+        Optional<ProfileRevision> latest =
+            profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc(current.getId());
+        if (previous == null || latest.isEmpty() || latest.get().getDepth() + 1 >= snapshotInterval
+            || !Objects.equals(latest.get().getVersion(), previous.getVersion())
+            || !ProfileContentHasher.hashLayout(previous).equals(ProfileContentHasher.hashLayout(current))) {
+            profileRevisionRepository.save(ProfileRevision.snapshot(previous, current));
+            return;
+        }
+
+        Map<String, Section> previousSections = sectionsByIdentifier(previous);
+        List<Section> sections = new ArrayList<>();
+        List<ElementChange> elements = new ArrayList<>();
+        for (Section section: current.getSections()) {
+            Section previousSection = previousSections.get(section.getIdentifier());
+            if (previousSection == null || !sameStructure(previousSection, section)) {
+                sections.add(section);
+                continue;
+            }
+            for (int i = 0; i < section.getElements().size(); i++) {
+                SectionElement element = section.getElements().get(i);
+                if (!ProfileContentHasher.hash(element)
+                    .equals(ProfileContentHasher.hash(previousSection.getElements().get(i)))) {
+                    elements.add(new ElementChange(section.getIdentifier(), element));
+                }
+            }
+        }
+        profileRevisionRepository.save(
+            ProfileRevision.diff(previous, current, latest.get().getDepth() + 1, sections, elements));
+    }
+
+    /**
+     * Method to restore a profile as it was at a date.
+     *
+     * <p>
+     *     Changes that were not recorded, for example writes of a migration, are only
+     *     included from the next recorded change on.
+     * </p>
+     *
+     * @param profileId the id of the profile
+     * @param date the date
+     * @return optional with the profile at the date, if it existed and was recorded then
+     */
+    public Optional<Profile> asOf(String profileId, LocalDateTime date) {
+        Optional<ProfileRevision> snapshot = profileRevisionRepository
+            .findFirstByProfileIdAndDepthAndCreatedDateLessThanEqualOrderByVersionDesc(profileId, 0, date);
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        Profile profile = snapshot.get().getSnapshot();
+        Long expectedVersion = snapshot.get().getVersion();
+        for (ProfileRevision revision: profileRevisionRepository
+            .findByProfileIdAndVersionGreaterThanAndCreatedDateLessThanEqualOrderByVersionAsc(
+                profileId, expectedVersion, date)) {
+            if (revision.isSnapshot() || !Objects.equals(revision.getFromVersion(), expectedVersion)) {
+                break;
+            }
+            apply(profile, revision);
+            expectedVersion = revision.getVersion();
+        }
+        return Optional.of(profile);
+    }
+
+    /**
+     * Method to apply a diff to the profile of the previous revision.
+     *
+     * @param profile the profile of the previous revision, is modified
+     * @param diff the diff
+     */
+    private static void apply(Profile profile, ProfileRevision diff) {
+        Map<String, Section> sections = sectionsByIdentifier(profile);
+        diff.getSections().forEach(section -> sections.put(section.getIdentifier(), section));
+        for (ElementChange change: diff.getElements()) {
+            List<SectionElement> elements = new ArrayList<>(sections.get(change.section()).getElements());
+            elements.replaceAll(element -> element.getIdentifier().equals(change.element().getIdentifier())
+                ? change.element() : element);
+            sections.get(change.section()).setElements(elements);
+        }
+        profile.setSections(diff.getSectionOrder().stream()
+            .map(sections::get)
+            .collect(Collectors.toCollection(ArrayList::new)));
+        profile.setVersion(diff.getVersion());
+        profile.setLastModifiedDate(diff.getCreatedDate());
+    }
+
+    /**
+     * Checks if the changes of a section can be stored by element.
+     *
+     * <p>
+     *     That is the case if everything except the values of the elements is unchanged
+     *     and the elements can be told apart by their identifiers.
+     * </p>
+     *
+     * @param previous the section before the change
+     * @param current the section after the change
+     * @return true if only values of elements changed
+     */
+    private static boolean sameStructure(Section previous, Section current) {
+        if (!Objects.equals(previous.getTitle(), current.getTitle()) || previous.isShowTitle() != current.isShowTitle()
+            || !Objects.equals(previous.getStyle(), current.getStyle())) {
+            return false;
+        }
+        List<String> identifiers = elementIdentifiers(current);
+        return !identifiers.contains(null) && identifiers.stream().distinct().count() == identifiers.size()
+            && identifiers.equals(elementIdentifiers(previous));
+    }
+
+    private static List<String> elementIdentifiers(Section section) {
+        return section.getElements().stream().map(SectionElement::getIdentifier).toList();
+    }
+
+    private static Map<String, Section> sectionsByIdentifier(Profile profile) {
+        return profile.getSections().stream()
+            .collect(Collectors.toMap(Section::getIdentifier, Function.identity(), (first, second) -> first,
+                LinkedHashMap::new));
+    }
+}
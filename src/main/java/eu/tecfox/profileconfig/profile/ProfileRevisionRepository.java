@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.profile.models.ProfileRevision;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository that holds all queries related to the revision history of profiles.
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Repository
+public interface ProfileRevisionRepository extends MongoRepository<ProfileRevision, String> {
+
+    /**
+     * Method to find the latest revision of a profile.
+     *
+     * @param profileId the id of the profile
+     * @return optional with the latest revision, if the profile has any
+     */
+    Optional<ProfileRevision> findFirstByProfileIdOrderByVersionDesc(String profileId);
+
+    /**
+     * Method to find the latest snapshot of a profile that was created before a date.
+     *
+     * @param profileId the id of the profile
+     * @param depth always {@code 0}, the depth of snapshots
+     * @param date the date
+     * @return optional with the snapshot, if the profile existed at the date
+     */
+    Optional<ProfileRevision> findFirstByProfileIdAndDepthAndCreatedDateLessThanEqualOrderByVersionDesc(
+        String profileId, int depth, LocalDateTime date);
+
+    /**
+     * Method to find all revisions of a profile after a version that were created before a date.
+     *
+     * @param profileId the id of the profile
+     * @param version the version
+     * @param date the date
+     * @return the revisions in order of their version
+     */
+    List<ProfileRevision> findByProfileIdAndVersionGreaterThanAndCreatedDateLessThanEqualOrderByVersionAsc(
+        String profileId, Long version, LocalDateTime date);
+}
@@ -16,9 +16,18 @@
 
 package eu.tecfox.profileconfig.profile;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
 
 /**
  * Interface of the Profile Service for all business logic related to profiles.
@@ -36,6 +45,46 @@ public interface ProfileService {
      */
     Optional<Profile> findByUserId(String id);
 
+    /**
+     * Find a Profile of a specific user with only some of its fields and sections.
+     *
+     * @param id the id of the user
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return optional with the profile, if it exists
+     */
+    Optional<Profile> findByUserId(String id, Set<String> fields, Set<String> sectionIdentifiers);
+
+    /**
+     * Find the profiles of many users at once, optionally with only some of their fields and sections.
+     *
+     * @param ids the ids of the users
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return the profiles by the ids of their users in the order of the ids, users without a profile are left out
+     * @throws ApiRequestException if an id is blank, too many ids are given or a field cannot be requested
+     */
+    Map<String, Profile> findAllByUserIds(List<String> ids, Set<String> fields, Set<String> sectionIdentifiers);
+
+    /**
+     * Find the profiles of all users that have a skill, e.g. a programming language or tool.
+     *
+     * @param skill the value to search for
+     * @return the profiles by the ids of their users
+     */
+    Map<String, Profile> findAllBySkill(String skill);
+
+    /**
+     * Streams a page of profile summaries, ordered by the ID of the profiles.
+     * The stream has to be closed after use.
+     *
+     * @param afterId the ID of the last profile of the previous page, {@code null} for the first page
+     * @param limit the maximum number of profiles in the page
+     * @return a stream of profile summaries
+     * @throws ApiRequestException if the limit is out of range or the ID is not a valid profile ID
+     */
+    Stream<ProfileSummary> streamSummaries(String afterId, int limit);
+
     /**
      * Method to save or update a profile.
      *
@@ -48,8 +97,60 @@ public interface ProfileService {
     /**
      * Method to merge a profile with the current template.
      *
+     * <p>
+     *     The merged profile is persisted, profiles that are already merged with the
+     *     current template version are returned unchanged.
+     * </p>
+     *
      * @param profile the profile to merge
      * @return the merges profile
      */
     Profile mergeWithTemplate(Profile profile);
+
+    /**
+     * Method to merge a profile with a specific template.
+     *
+     * <p>
+     *     The template is not modified, so it can be shared between merges.
+     *     The merged profile is not persisted.
+     * </p>
+     *
+     * @param profile the profile to merge
+     * @param template the template to merge with
+     * @return the merged profile
+     */
+    Profile mergeWithTemplate(Profile profile, Template template);
+
+    /**
+     * Method to replace a single section of the profile of a user.
+     *
+     * <p>
+     *     Only the section is validated and written.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param section the new section, identified by its identifier
+     * @return the updated section
+     */
+    Section updateSection(String userId, Section section);
+
+    /**
+     * Method to replace a single unique element in a section of the profile of a user.
+     *
+     * @param userId the id of the user
+     * @param sectionIdentifier the identifier of the section
+     * @param element the new element, identified by its identifier
+     * @return the updated section
+     */
+    Section updateElement(String userId, String sectionIdentifier, SectionElement element);
+
+    /**
+     * Method to add an entry of a non-unique element to a section of the profile of a user.
+     *
+     * @param userId the id of the user
+     * @param sectionIdentifier the identifier of the section
+     * @param element the element to add
+     * @return the updated section
+     */
+    Section addElement(String userId, String sectionIdentifier, SectionElement element);
 }
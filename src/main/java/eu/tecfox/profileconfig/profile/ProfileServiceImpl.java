@@ -16,26 +16,72 @@
 
 package eu.tecfox.profileconfig.profile;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
+import eu.tecfox.profileconfig.profile.models.ProfileValidator;
 import eu.tecfox.profileconfig.template.TemplateService;
 import eu.tecfox.profileconfig.template.models.Template;
 import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
 
 import lombok.RequiredArgsConstructor;
 
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class ProfileServiceImpl implements ProfileService {
 
+    /**
+     * Number of attempts to save a profile that is modified concurrently.
+     */
+    static final int MAX_SAVE_ATTEMPTS = 3;
+
+    /**
+     * Fields of a profile that can be requested, the id, key and versions are always included.
+     */
+    static final Set<String> PROJECTABLE_FIELDS = Set.of("title", "sections", "style", "header", "footer");
+
+    /**
+     * Maximum number of profiles in a page of profile summaries.
+     */
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    /**
+     * Maximum number of profiles that can be requested at once.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private static final int LOCK_STRIPES = 64;
+
     private final ProfileRepository profileRepository;
     private final TemplateService templateService;
+    private final ProfileValidator profileValidator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Lock[] saveLocks = IntStream.range(0, LOCK_STRIPES)
+        .mapToObj(i -> new ReentrantLock())
+        .toArray(Lock[]::new);
 
     /**
      * Finds a profile by user id if it exists.
@@ -48,26 +94,387 @@ public class ProfileServiceImpl implements ProfileService {
         return profileRepository.findByUserId(id);
     }
 
+    /**
+     * Find the profile of a user with only some of its fields and sections.
+     *
+     * <p>
+     *     The fields and sections are projected by the database. Compact profiles
+     *     are restored with the whole template, so parts that were not requested
+     *     are removed afterwards.
+     * </p>
+     *
+     * @param id the id of the user
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return optional with the profile, if it exists
+     * @throws ApiRequestException if a field cannot be requested
+     */
+    @Override
+    public Optional<Profile> findByUserId(String id, Set<String> fields, Set<String> sectionIdentifiers) {
+        if (fields == null && sectionIdentifiers == null) {
+            return findByUserId(id);
+        }
+        checkProjectable(fields);
+        return profileRepository.findByUserId(id, fields, sectionIdentifiers)
+            .map(profile -> retain(profile, fields, sectionIdentifiers));
+    }
+
+    /**
+     * Find the profiles of many users with a single query.
+     *
+     * <p>
+     *     The profiles are returned by the ids of their users in the order of the ids, because
+     *     the user id is not part of the serialized profile. Duplicate ids are returned once and
+     *     users without a profile are left out.
+     * </p>
+     *
+     * @param ids the ids of the users
+     * @param fields the fields to include, all fields if {@code null}
+     * @param sectionIdentifiers the identifiers of the sections to include, all sections if {@code null}
+     * @return the profiles by the ids of their users in the order of the ids
+     * @throws ApiRequestException if too many ids are given or a field cannot be requested
+     */
+    @Override
+    public Map<String, Profile> findAllByUserIds(List<String> ids, Set<String> fields, Set<String> sectionIdentifiers) {
+        List<String> distinctIds = distinctUserIds(ids);
+        checkProjectable(fields);
+        Map<String, Profile> byUserId = profileRepository.findAllByUserIds(distinctIds, fields, sectionIdentifiers)
+            .stream()
+            .collect(Collectors.toMap(Profile::getUserId, profile -> profile));
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        for (String id: distinctIds) {
+            Profile profile = byUserId.get(id);
+            if (profile != null) {
+                profiles.put(id, fields == null && sectionIdentifiers == null
+                    ? profile : retain(profile, fields, sectionIdentifiers));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Method to validate the ids of a batch request.
+     *
+     * @param ids the requested ids of users
+     * @return the distinct ids in the order they were requested
+     * @throws ApiRequestException if an id is blank or too many profiles are requested
+     */
+    private static List<String> distinctUserIds(List<String> ids) {
+        if (ids.stream().anyMatch(id -> id == null || id.isBlank())) {
+            throw new ApiRequestException("The ids of the users must not be blank.");
+        }
+        List<String> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new ApiRequestException("At most " + MAX_BATCH_SIZE + " profiles can be requested at once.");
+        }
+        return distinctIds;
+    }
+
+    /**
+     * Find the profiles of all users that have a skill.
+     *
+     * <p>
+     *     The search may read from secondaries, so changes of the last moments may be missing.
+     * </p>
+     *
+     * @param skill the value to search for
+     * @return the profiles by the ids of their users
+     */
+    @Override
+    public Map<String, Profile> findAllBySkill(String skill) {
+        return profileRepository.findAllBySkill(skill).stream()
+            .collect(Collectors.toMap(Profile::getUserId, profile -> profile, (first, second) -> first,
+                LinkedHashMap::new));
+    }
+
+    /**
+     * Streams a page of profile summaries from a database cursor.
+     *
+     * <p>
+     *     Profiles are neither loaded at once nor merged, so the memory needed does not
+     *     depend on the size of the page. Changes that are still buffered are not included
+     *     and the page may be read from secondaries.
+     * </p>
+     *
+     * @param afterId the ID of the last profile of the previous page, {@code null} for the first page
+     * @param limit the maximum number of profiles in the page
+     * @return a stream of profile summaries
+     * @throws ApiRequestException if the limit is not between 1 and {@value #MAX_PAGE_SIZE}
+     *     or the ID is not a valid profile ID
+     */
+    @Override
+    public Stream<ProfileSummary> streamSummaries(String afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiRequestException("The limit has to be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            throw new ApiRequestException("The ID after which the page starts is not a valid profile ID.");
+        }
+        return profileRepository.streamSummaries(afterId, limit);
+    }
+
     /**
      * Saves a profile to the database or updates an existing profile.
      *
      * <p>
-     *     Profile will be saved, if no ID exists.
-     *     Profile will be updated, if ID already exists in database.
+     *     Profile will be saved, if the user has no profile yet.
+     *     Profile will be updated, if the user already has a profile in the database.
+     * </p>
+     *
+     * <p>
+     *     Saves that change neither the content nor the layout of the stored profile
+     *     are skipped and return the stored profile. Otherwise a {@link ProfileChangedEvent}
+     *     is published after the profile was saved.
+     * </p>
+     *
+     * <p>
+     *     Saves of the same user are serialized by a lock striped by user id.
+     *     Writes from other instances or from the background re-merge are detected
+     *     by the version of the profile, first profiles inserted by another instance
+     *     by the unique index on the user id. On a conflict the profile is rebased onto
+     *     the latest stored profile and saved again. If the stored profile was
+     *     merged with a newer template in the meantime, the profile is merged with
+     *     that template first, so the re-merge is not undone.
      * </p>
+     *
+     * <p>
+     *     The values of two conflicting saves of the user are deliberately not merged,
+     *     the last save wins. Every save carries the whole profile as the client
+     *     edited it, so merging values of an older save into it would bring back
+     *     values the user removed. Only the identity and the template version are
+     *     taken from the stored profile.
+     * </p>
+     *
      * @param profile the profile to save or update
      * @return the saved profile with ID
+     * @throws OptimisticLockingFailureException if the profile still conflicts after all attempts
+     * @throws DuplicateKeyException if another profile of the user is still inserted concurrently after all attempts
      */
     @Override
     public Profile save(Profile profile) {
-        return profileRepository.save(profile);
+        Lock lock = lockOf(profile.getUserId());
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Profile stored = profileRepository.findByUserId(profile.getUserId()).orElse(null);
+                Profile rebased = rebase(profile, stored, attempt > 1);
+                rebased.setContentHash(ProfileContentHasher.hash(rebased));
+                if (stored != null && rebased.getContentHash().equals(stored.getContentHash())
+                    && ProfileContentHasher.hashLayout(rebased).equals(ProfileContentHasher.hashLayout(stored))) {
+                    return stored;
+                }
+                try {
+                    Profile saved = profileRepository.save(rebased);
+                    eventPublisher.publishEvent(new ProfileChangedEvent(stored, saved));
+                    return saved;
+                } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                    if (attempt == MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to replace a single section of the profile of a user.
+     *
+     * @param userId the id of the user
+     * @param section the new section, identified by its identifier
+     * @return the updated section
+     */
+    @Override
+    public Section updateSection(String userId, Section section) {
+        return patchSection(userId, section.getIdentifier(),
+            storedSection -> section,
+            (stored, updated) -> profileRepository.replaceSection(stored, updated));
+    }
+
+    /**
+     * Method to replace a single unique element in a section of the profile of a user.
+     *
+     * @param userId the id of the user
+     * @param sectionIdentifier the identifier of the section
+     * @param element the new element, identified by its identifier
+     * @return the updated section
+     */
+    @Override
+    public Section updateElement(String userId, String sectionIdentifier, SectionElement element) {
+        return patchSection(userId, sectionIdentifier,
+            storedSection -> {
+                List<SectionElement> elements = storedSection.getElements();
+                int index = elements.indexOf(element);
+                if (index < 0 || index != elements.lastIndexOf(element)) {
+                    throw new ApiRequestException("Element " + element.getIdentifier() +
+                        " does not exist once in section " + storedSection.getTitle() + ".");
+                }
+                elements.set(index, element);
+                return storedSection;
+            },
+            (stored, updated) -> profileRepository.replaceElement(stored, sectionIdentifier, element));
+    }
+
+    /**
+     * Method to add an entry of a non-unique element to a section of the profile of a user.
+     *
+     * <p>
+     *     The entry is added after the last entry of the same element.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param sectionIdentifier the identifier of the section
+     * @param element the element to add
+     * @return the updated section
+     */
+    @Override
+    public Section addElement(String userId, String sectionIdentifier, SectionElement element) {
+        int[] position = new int[1];
+        return patchSection(userId, sectionIdentifier,
+            storedSection -> {
+                List<SectionElement> elements = storedSection.getElements();
+                int lastIndex = elements.lastIndexOf(element);
+                if (lastIndex < 0) {
+                    throw new ApiRequestException("Element " + element.getIdentifier() +
+                        " does not exist in section " + storedSection.getTitle() + ".");
+                }
+                position[0] = lastIndex + 1;
+                elements.add(position[0], element);
+                return storedSection;
+            },
+            (stored, updated) -> profileRepository.insertElement(stored, sectionIdentifier, element, position[0]));
+    }
+
+    /**
+     * Method to change a single section of the profile of a user with a targeted update.
+     *
+     * <p>
+     *     The change is applied to a copy of the stored section, which is validated
+     *     incrementally against the template. Only the changed part is written. If the
+     *     profile was changed in the meantime, the change is applied to the latest
+     *     stored profile again.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param sectionIdentifier the identifier of the section
+     * @param change applies the change to a copy of the stored section and returns the changed section
+     * @param write writes the change to the stored profile, returns an empty optional on a conflict
+     * @return the updated section
+     * @throws ApiRequestException if the profile or section does not exist or the changed section is not valid
+     */
+    private Section patchSection(String userId, String sectionIdentifier, UnaryOperator<Section> change,
+        BiFunction<Profile, Section, Optional<Profile>> write) {
+        Lock lock = lockOf(userId);
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Profile stored = profileRepository.findByUserId(userId)
+                    .orElseThrow(() -> new ApiRequestException("User does not have a profile yet.",
+                        HttpStatus.NOT_FOUND));
+                Template template = (stored.getKey() == null ? templateService.getTemplate()
+                    : templateService.getTemplate(stored.getKey()))
+                    .orElseThrow(() -> new ApiRequestException("There is currently no template available."));
+                Section templateSection = findSection(template, sectionIdentifier)
+                    .orElseThrow(() -> new ApiRequestException("Section " + sectionIdentifier + " does not exist.",
+                        HttpStatus.NOT_FOUND));
+                Section storedSection = findSection(stored, sectionIdentifier)
+                    .orElseThrow(() -> new ApiRequestException("Section " + templateSection.getTitle() +
+                        " is missing in your profile."));
+
+                Section updated = change.apply(storedSection.mergedWith(null));
+                if (!profileValidator.isValid(stored, List.of(updated), template, null)) {
+                    throw new ApiRequestException("Section " + templateSection.getTitle() +
+                        " does not match the template.");
+                }
+                Optional<Profile> result = write.apply(stored, updated);
+                if (result.isPresent()) {
+                    eventPublisher.publishEvent(new ProfileChangedEvent(stored, result.get()));
+                    return updated;
+                }
+                if (attempt == MAX_SAVE_ATTEMPTS) {
+                    throw new OptimisticLockingFailureException("Profile of user " + userId +
+                        " was modified concurrently.");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void checkProjectable(Set<String> fields) {
+        if (fields != null && !PROJECTABLE_FIELDS.containsAll(fields)) {
+            throw new ApiRequestException("Only the fields " + String.join(", ", PROJECTABLE_FIELDS.stream()
+                .sorted().toList()) + " can be requested.");
+        }
+    }
+
+    private static Profile retain(Profile profile, Set<String> fields, Set<String> sectionIdentifiers) {
+        if (sectionIdentifiers != null && profile.getSections() != null) {
+            profile.setSections(profile.getSections().stream()
+                .filter(section -> sectionIdentifiers.contains(section.getIdentifier()))
+                .toList());
+        } else if (fields != null && !fields.contains("sections")) {
+            profile.setSections(null);
+        }
+        if (fields != null) {
+            profile.setTitle(fields.contains("title") ? profile.getTitle() : null);
+            profile.setStyle(fields.contains("style") ? profile.getStyle() : null);
+            profile.setHeader(fields.contains("header") ? profile.getHeader() : null);
+            profile.setFooter(fields.contains("footer") ? profile.getFooter() : null);
+        }
+        return profile;
+    }
+
+    private static Optional<Section> findSection(Template template, String sectionIdentifier) {
+        return template.getSections().stream()
+            .filter(section -> section.getIdentifier().equals(sectionIdentifier))
+            .findFirst();
+    }
+
+    /**
+     * Method to prepare a profile for saving it on top of the stored profile of the user.
+     * The values of the stored profile are not merged into the profile, the latest save
+     * of the user wins.
+     *
+     * @param profile the profile to save
+     * @param existing the stored profile of the user, may be null
+     * @param conflict whether the previous attempt to save the profile conflicted
+     * @return the profile with the identity of the stored profile
+     */
+    private Profile rebase(Profile profile, Profile existing, boolean conflict) {
+        if (existing == null) {
+            profile.setId(null);
+            profile.setVersion(null);
+            return profile;
+        }
+        Profile rebased = profile;
+        if (conflict && existing.getTemplateVersion() != null) {
+            Optional<Template> template = existing.getKey() == null ? templateService.getTemplate()
+                : templateService.getTemplate(existing.getKey());
+            if (template.isPresent() && existing.getTemplateVersion().equals(template.get().getVersion())) {
+                rebased = mergeWithTemplate(profile, template.get());
+            }
+        }
+        rebased.patch(existing);
+        return rebased;
+    }
+
+    /**
+     * Method to get the lock that serializes saves of a user.
+     *
+     * @param userId the id of the user
+     * @return the lock of the stripe the user belongs to
+     */
+    private Lock lockOf(String userId) {
+        return saveLocks[Math.floorMod(Objects.hashCode(userId), saveLocks.length)];
     }
 
     /**
      * Method to merge the latest template with a profile.
      *
      * <p>
-     *     Gets the latest template from the database and copies it into
+     *     Gets the latest version of the profile's template and copies it into
      *     a new profile. All values from the existing profile are copied
      *     into the corresponding element in the new profile that matches the template.
      *     This ensures, that any changes in the template will reflect in the
@@ -78,23 +485,53 @@ public class ProfileServiceImpl implements ProfileService {
      *     empty in the new profile.
      * </p>
      *
+     * <p>
+     *     Profiles that were already merged with the current template version are
+     *     returned as they are. Otherwise the merged profile is persisted, so each
+     *     profile is merged at most once per template version. The merged profile is
+     *     not persisted if the stored profile was changed in the meantime.
+     * </p>
+     *
      * @param profile the existing profile
      * @return a new profile that matches the template and is filled with the values of the old profile
      */
     @Override
     public Profile mergeWithTemplate(Profile profile) {
-        Optional<Template> templateOptional = templateService.getTemplate();
+        Optional<Template> templateOptional = profile.getKey() == null ? templateService.getTemplate()
+            : templateService.getTemplate(profile.getKey());
         if (templateOptional.isEmpty()) {
             return profile;
         }
         Template template = templateOptional.get();
-        Profile patchedProfile = new Profile(template);
-        patchedProfile.patch(profile);
-
-        final Map<Object, Section> sectionMap = profile.getSections().stream()
-            .collect(Collectors.toMap(Section::getIdentifier, Function.identity()));
+        if (template.getVersion() != null && template.getVersion().equals(profile.getTemplateVersion())) {
+            return profile;
+        }
+        Profile mergedProfile = mergeWithTemplate(profile, template);
+        if (mergedProfile.getId() != null && template.getVersion() != null) {
+            profileRepository.replaceAllVersioned(List.of(mergedProfile));
+        }
+        return mergedProfile;
+    }
 
-        patchedProfile.getSections().forEach(s -> s.patch(sectionMap.get(s.getIdentifier())));
+    /**
+     * Method to merge a specific template with a profile.
+     *
+     * <p>
+     *     Works like {@link #mergeWithTemplate(Profile)}, but always merges and does not
+     *     persist the merged profile. The template is not modified and the merged
+     *     profile holds copies of all nodes of the template, so the template can be
+     *     shared between concurrent merges, see {@link Profile#mergedWith(Template)}.
+     * </p>
+     *
+     * @param profile the existing profile
+     * @param template the template to merge with
+     * @return a new profile that matches the template and is filled with the values of the old profile
+     */
+    @Override
+    public Profile mergeWithTemplate(Profile profile, Template template) {
+        Profile patchedProfile = profile.mergedWith(template);
+        patchedProfile.setContentHash(null);
+        patchedProfile.setTemplateVersion(template.getVersion());
         return patchedProfile;
     }
 
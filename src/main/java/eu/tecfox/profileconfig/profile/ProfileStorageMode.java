@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+/**
+ * How profiles are written to the database, set with {@code profile.storage.mode}.
+ *
+ * <p>
+ *     Only affects writes. Every profile document records how it was stored,
+ *     so documents of both modes can be read at any time.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public enum ProfileStorageMode {
+
+    /**
+     * Stores the whole profile including the structure of the template.
+     */
+    FULL,
+
+    /**
+     * Stores only the values of the profile, keyed by section and element identifiers.
+     * The structure is restored from the template when the profile is read.
+     */
+    COMPACT
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compresses large string values of profiles when they are written and
+ * decompresses them when they are read.
+ *
+ * <p>
+ *     Strings in the values of elements that are longer than the threshold are
+ *     stored as deflated binary with the user defined subtype {@code 0x80}, if
+ *     that is smaller. Strings are decompressed from the loaded document before it is
+ *     converted, so the rest of the application only sees plain strings. Compressed
+ *     values cannot be queried, the threshold should be well above the length of
+ *     searchable values like skills.
+ * </p>
+ *
+ * <p>
+ *     The sizes before and after compression are reported as the metrics
+ *     {@code profile.compression.original}, {@code profile.compression.stored}
+ *     and {@code profile.compression.ratio}.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Component
+public class ProfileValueCompression extends AbstractMongoEventListener<Profile>
+    implements BeforeSaveCallback<Profile> {
+
+    static final byte SUBTYPE = (byte) 0x80;
+
+    private static final String VALUE_FIELD = "value";
+
+    private final int threshold;
+    private final Counter originalBytes;
+    private final Counter storedBytes;
+    private final DistributionSummary ratio;
+
+    public ProfileValueCompression(MeterRegistry meterRegistry,
+        @Value("${profile.storage.compression.threshold:1024}") int threshold) {
+        this.threshold = threshold;
+        this.originalBytes = Counter.builder("profile.compression.original").baseUnit("bytes")
+            .description("Size of compressed string values before compression").register(meterRegistry);
+        this.storedBytes = Counter.builder("profile.compression.stored").baseUnit("bytes")
+            .description("Size of compressed string values after compression").register(meterRegistry);
+        this.ratio = DistributionSummary.builder("profile.compression.ratio")
+            .description("Size after compression divided by the size before compression")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Profile onBeforeSave(Profile entity, Document document, String collection) {
+        if (document.get("sections") instanceof List<?> sections) {
+            document.put("sections", sections.stream().map(this::compressSection).toList());
+        }
+        return entity;
+    }
+
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Profile> event) {
+        Document document = event.getDocument();
+        if (document != null) {
+            decompress(document);
+        }
+    }
+
+    /**
+     * Method to compress the values of the document of a section.
+     *
+     * @param section the document of the section
+     * @return the document with compressed values
+     */
+    Object compressSection(Object section) {
+        if (section instanceof Document document && document.get("elements") instanceof List<?> elements) {
+            document.put("elements", elements.stream().map(this::compressElement).toList());
+        }
+        return section;
+    }
+
+    /**
+     * Method to compress the value of the document of an element.
+     *
+     * @param element the document of the element
+     * @return the document with a compressed value
+     */
+    Object compressElement(Object element) {
+        if (element instanceof Document document && document.containsKey(VALUE_FIELD)) {
+            document.put(VALUE_FIELD, compress(document.get(VALUE_FIELD)));
+        }
+        return element;
+    }
+
+    private Object compress(Object value) {
+        if (value instanceof String string && string.length() > threshold) {
+            byte[] original = string.getBytes(StandardCharsets.UTF_8);
+            byte[] compressed = deflate(original);
+            if (compressed.length >= original.length) {
+                return value;
+            }
+            originalBytes.increment(original.length);
+            storedBytes.increment(compressed.length);
+            ratio.record((double) compressed.length / original.length);
+            return new Binary(SUBTYPE, compressed);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(this::compress).toList();
+        }
+        if (value instanceof Document document) {
+            document.replaceAll((key, nested) -> compress(nested));
+        }
+        return value;
+    }
+
+    /**
+     * Method to decompress all values of the loaded document of a profile in place.
+     *
+     * @param profile the document of the profile
+     */
+    static void decompress(Document profile) {
+        if (profile.containsKey("sections")) {
+            profile.put("sections", decompressValue(profile.get("sections")));
+        }
+    }
+
+    private static Object decompressValue(Object value) {
+        if (value instanceof Binary binary && binary.getType() == SUBTYPE) {
+            return new String(inflate(binary.getData()), StandardCharsets.UTF_8);
+        }
+        if (value instanceof List<?> list && !list.isEmpty()) {
+            return list.stream().map(ProfileValueCompression::decompressValue).toList();
+        }
+        if (value instanceof Document document) {
+            document.replaceAll((key, nested) -> decompressValue(nested));
+        }
+        return value;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Compressed value is truncated.");
+                }
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Could not decompress value.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
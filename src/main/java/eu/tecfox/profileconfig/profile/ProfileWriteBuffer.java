@@ -0,0 +1,271 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind buffer for profile saves.
+ *
+ * <p>
+ *     Clients autosave the profile of a user over and over. Only the latest
+ *     profile of each user is held in memory and saved once the user stopped
+ *     saving for the quiet period, but no later than the maximum age after it
+ *     was first buffered. If the buffer exceeds its maximum size, the next
+ *     scheduled flush saves all buffered profiles. All buffered profiles are
+ *     saved on shutdown.
+ * </p>
+ * <p>
+ *     Profiles that cannot be saved stay buffered and are retried with an
+ *     exponential backoff until they are saved or replaced by a newer profile.
+ *     After the maximum number of attempts they are dropped and logged, so a
+ *     profile that can never be saved is not served as the profile of its user.
+ * </p>
+ * <p>
+ *     Reads through this buffer always see the latest buffered profile. Reads on
+ *     other instances only see stored profiles, which lag behind by at most the
+ *     maximum age as long as saves succeed.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ProfileWriteBuffer {
+
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    private final ProfileService profileService;
+    private final Duration quietPeriod;
+    private final Duration maxAge;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final int maxSize;
+
+    private final Map<String, Pending> buffered = new ConcurrentHashMap<>();
+    private final AtomicBoolean overflowing = new AtomicBoolean();
+
+    public ProfileWriteBuffer(ProfileService profileService,
+        @Value("${profile.write-buffer.quiet-period:PT5S}") Duration quietPeriod,
+        @Value("${profile.write-buffer.max-age:PT30S}") Duration maxAge,
+        @Value("${profile.write-buffer.retry-backoff:PT1S}") Duration retryBackoff,
+        @Value("${profile.write-buffer.max-attempts:10}") int maxAttempts,
+        @Value("${profile.write-buffer.max-size:1000}") int maxSize) {
+        this.profileService = profileService;
+        this.quietPeriod = quietPeriod;
+        this.maxAge = maxAge;
+        this.retryBackoff = retryBackoff;
+        this.maxAttempts = maxAttempts;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Method to buffer a profile until it is saved.
+     *
+     * <p>
+     *     Replaces any buffered profile of the same user, keeping the time it was
+     *     first buffered. Profiles without a user are saved immediately.
+     * </p>
+     *
+     * @param profile the profile to save
+     * @return the buffered profile
+     */
+    public Profile buffer(Profile profile) {
+        if (profile.getUserId() == null) {
+            return profileService.save(profile);
+        }
+        Instant now = Instant.now();
+        buffered.merge(profile.getUserId(), new Pending(profile, now, now, 0, now),
+            (previous, latest) -> new Pending(profile, previous.firstBufferedAt(), now, 0, now));
+        if (buffered.size() >= maxSize) {
+            overflowing.set(true);
+        }
+        return profile;
+    }
+
+    /**
+     * Find the profile of a user, preferring the buffered profile over the stored one.
+     *
+     * @param userId the id of the user
+     * @return optional with the profile, if it exists
+     */
+    public Optional<Profile> findByUserId(String userId) {
+        Pending pending = buffered.get(userId);
+        if (pending != null) {
+            return Optional.of(pending.profile());
+        }
+        return profileService.findByUserId(userId);
+    }
+
+    /**
+     * Method to save all profiles that were not changed during the quiet period
+     * or exceeded the maximum age.
+     *
+     * <p>
+     *     Saves all profiles instead, if the buffer exceeded its maximum size.
+     *     Profiles waiting for a retry are skipped until their backoff is over.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${profile.write-buffer.flush-interval:PT1S}")
+    public void flush() {
+        Instant now = Instant.now();
+        Instant quietSince = now.minus(quietPeriod);
+        Instant expiredSince = now.minus(maxAge);
+        boolean all = overflowing.getAndSet(false);
+        buffered.forEach((userId, pending) -> {
+            boolean due = all
+                || !pending.bufferedAt().isAfter(quietSince)
+                || !pending.firstBufferedAt().isAfter(expiredSince);
+            if (due && !pending.nextAttemptAt().isAfter(now)) {
+                saveQuietly(userId, pending);
+            }
+        });
+    }
+
+    /**
+     * Method to save the buffered profile of a user immediately.
+     *
+     * <p>
+     *     Used before the stored profile is changed directly. Fails if the buffered
+     *     profile cannot be saved, so the stored profile is not changed underneath it.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @throws RuntimeException the failure of the save, if the buffered profile cannot be saved
+     */
+    public void flush(String userId) {
+        Pending pending = buffered.get(userId);
+        if (pending != null) {
+            save(userId, pending);
+        }
+    }
+
+    /**
+     * Method to save the buffered profiles of some users immediately.
+     *
+     * <p>
+     *     Only the buffered profiles are visited, so users without a buffered
+     *     profile cost nothing. Fails on the first buffered profile that cannot be saved.
+     * </p>
+     *
+     * @param userIds the ids of the users
+     * @throws RuntimeException the failure of the save, if a buffered profile cannot be saved
+     */
+    public void flush(Collection<String> userIds) {
+        Set<String> requested = new HashSet<>(userIds);
+        buffered.forEach((userId, pending) -> {
+            if (requested.contains(userId)) {
+                save(userId, pending);
+            }
+        });
+    }
+
+    /**
+     * Method to save all buffered profiles.
+     */
+    @PreDestroy
+    public void flushAll() {
+        buffered.forEach(this::saveQuietly);
+    }
+
+    /**
+     * Method to save a buffered profile.
+     *
+     * <p>
+     *     The profile stays buffered if it was replaced while it was saved, so the
+     *     newer profile is saved with the next flush. Profiles that cannot be saved
+     *     stay buffered and are retried once their backoff is over, until the maximum
+     *     number of attempts is reached.
+     * </p>
+     *
+     * @param userId the id of the user
+     * @param pending the buffered profile
+     * @throws RuntimeException the failure of the save
+     */
+    private void save(String userId, Pending pending) {
+        try {
+            profileService.save(pending.profile());
+            buffered.remove(userId, pending);
+        } catch (RuntimeException e) {
+            Pending retry = pending.failed(retryBackoff);
+            if (retry.attempts() >= maxAttempts) {
+                if (buffered.remove(userId, pending)) {
+                    log.error("Dropped buffered profile of user {} after {} failed attempts.",
+                        userId, retry.attempts(), e);
+                }
+            } else if (buffered.replace(userId, pending, retry)) {
+                log.warn("Could not save buffered profile of user {}, attempt {}. Retrying at {}.",
+                    userId, retry.attempts(), retry.nextAttemptAt(), e);
+            }
+            throw e;
+        }
+    }
+
+    private void saveQuietly(String userId, Pending pending) {
+        try {
+            save(userId, pending);
+        } catch (RuntimeException e) {
+            // recorded by save, the profile is retried or was dropped
+        }
+    }
+
+    /**
+     * A buffered profile.
+     *
+     * @param profile the latest profile of the user
+     * @param firstBufferedAt the time the first unsaved profile of the user was buffered
+     * @param bufferedAt the time the latest profile was buffered
+     * @param attempts the number of failed attempts to save the profile
+     * @param nextAttemptAt the earliest time the profile is saved again
+     */
+    private record Pending(Profile profile, Instant firstBufferedAt, Instant bufferedAt,
+        int attempts, Instant nextAttemptAt) {
+
+        /**
+         * Method to record a failed attempt to save the profile.
+         *
+         * @param retryBackoff the backoff after the first failed attempt
+         * @return the pending profile with its next attempt delayed exponentially
+         */
+        Pending failed(Duration retryBackoff) {
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts, 20));
+            if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+                backoff = MAX_RETRY_BACKOFF;
+            }
+            return new Pending(profile, firstBufferedAt, bufferedAt, attempts + 1,
+                Instant.now().plus(backoff));
+        }
+    }
+}
@@ -16,9 +16,16 @@
 
 package eu.tecfox.profileconfig.profile.models;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -51,14 +58,20 @@ public class Profile extends Template implements Patchable<Profile> {
     /**
      * Constructor to create a profile based on a template.
      *
+     * <p>
+     *     The style, header and footer are copied. The sections are taken over as they
+     *     are, callers that change them replace them first, see {@link #mergedWith(Template)}.
+     * </p>
+     *
      * @param template the template to create the profile from
      */
     public Profile(Template template) {
-        this.setStyle(template.getStyle());
+        this.setStyle(template.getStyle() == null ? null : template.getStyle().copy());
         this.setSections(template.getSections());
-        this.setHeader(template.getHeader());
-        this.setFooter(template.getFooter());
+        this.setHeader(template.getHeader() == null ? null : template.getHeader().copy());
+        this.setFooter(template.getFooter() == null ? null : template.getFooter().copy());
         this.setTitle(template.getTitle());
+        this.setKey(template.getKey());
     }
 
     /**
@@ -67,6 +80,26 @@ public class Profile extends Template implements Patchable<Profile> {
     @JsonIgnore
     private String userId;
 
+    /**
+     * The version of the template this profile was last merged with.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long templateVersion;
+
+    /**
+     * Canonical hash of the sections and values, used to detect saves that
+     * do not change the profile. Not set on merged profiles.
+     */
+    @JsonIgnore
+    private String contentHash;
+
+    /**
+     * Indicates if the profile is stored with its values only, see
+     * {@link eu.tecfox.profileconfig.profile.ProfileStorageMode#COMPACT}.
+     */
+    @JsonIgnore
+    private boolean compact;
+
 
     /**
      * Patches all base data of a profile.
@@ -83,13 +116,49 @@ public class Profile extends Template implements Patchable<Profile> {
     @Override
     public void patch(Profile entityToMerge) {
         this.setId(entityToMerge.getId());
+        this.setVersion(entityToMerge.getVersion());
         this.userId = entityToMerge.getUserId();
+        this.templateVersion = entityToMerge.getTemplateVersion();
         this.setCreatedByUser(entityToMerge.getCreatedByUser());
         this.setModifiedByUser(entityToMerge.getModifiedByUser());
         this.setCreatedDate(entityToMerge.getCreatedDate());
         this.setLastModifiedDate(entityToMerge.getLastModifiedDate());
     }
 
+    /**
+     * Method to create a copy of this profile with the structure of a template.
+     *
+     * <p>
+     *     The copy takes all sections and elements from the template and the values
+     *     from this profile, see {@link Section#mergedWith(Section)}. The base data of
+     *     this profile is kept, including the template version. The merge copies every
+     *     node it takes from the template in a single linear pass, so the template is
+     *     never modified and changes of the copy never reach the template. If this
+     *     profile has no sections, because they were not read, the copy has no
+     *     sections either.
+     * </p>
+     *
+     * @param template the template that defines the structure
+     * @return a new profile that matches the template and is filled with the values of this profile
+     */
+    public Profile mergedWith(Template template) {
+        Profile merged = new Profile(template);
+        merged.patch(this);
+        merged.setContentHash(contentHash);
+        merged.setCompact(compact);
+        if (getSections() == null) {
+            merged.setSections(null);
+            return merged;
+        }
+
+        final Map<Object, Section> sectionMap = getSections().stream()
+            .collect(Collectors.toMap(Section::getIdentifier, Function.identity()));
+        merged.setSections(template.getSections().stream()
+            .map(s -> s.mergedWith(sectionMap.get(s.getIdentifier())))
+            .collect(Collectors.toCollection(ArrayList::new)));
+        return merged;
+    }
+
     @Override
     public Object getIdentifier() {
         return userId;
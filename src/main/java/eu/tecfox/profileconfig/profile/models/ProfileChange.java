@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import eu.tecfox.profileconfig.template.models.section.Section;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Entry of the change log of a profile.
+ *
+ * <p>
+ *     Holds the sections that changed from one version of a profile to the next,
+ *     so clients can catch up on a profile without downloading it again.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "profileChanges")
+public class ProfileChange {
+
+    @Id
+    private String id;
+
+    private String profileId;
+
+    /**
+     * The version of the profile before the change, {@code null} for new profiles.
+     */
+    private Long fromVersion;
+
+    /**
+     * The version of the profile after the change.
+     */
+    private Long version;
+
+    /**
+     * The changed and added sections with all their elements.
+     */
+    private List<Section> changedSections;
+
+    /**
+     * The identifiers of the removed sections.
+     */
+    private List<String> removedSections;
+
+    private LocalDateTime createdDate;
+
+    /**
+     * Constructor to create a new change log entry.
+     *
+     * @param previous the profile before the change, may be {@code null}
+     * @param current the profile after the change
+     * @param changedSections the changed and added sections
+     * @param removedSections the identifiers of the removed sections
+     */
+    public ProfileChange(Profile previous, Profile current, List<Section> changedSections,
+        List<String> removedSections) {
+        this.profileId = current.getId();
+        this.fromVersion = previous == null ? null : previous.getVersion();
+        this.version = current.getVersion();
+        this.changedSections = changedSections;
+        this.removedSections = removedSections;
+        this.createdDate = LocalDateTime.now();
+    }
+}
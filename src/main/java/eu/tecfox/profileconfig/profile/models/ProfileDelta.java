@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.util.List;
+
+import eu.tecfox.profileconfig.template.models.section.Section;
+
+/**
+ * Changes of a profile since a version known to a client.
+ *
+ * <p>
+ *     If the changes cannot be reconstructed from the change log, {@code full} is set
+ *     and {@code sections} holds all sections of the profile. The client has to replace
+ *     its copy of the profile in this case.
+ * </p>
+ *
+ * @param version the current version of the profile
+ * @param templateVersion the version of the template the profile was merged with
+ * @param full {@code true} if all sections are sent instead of the changes
+ * @param sections the changed sections or all sections of the profile
+ * @param removedSections the identifiers of the removed sections
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record ProfileDelta(Long version, Long templateVersion, boolean full, List<Section> sections,
+                           List<String> removedSections) {
+
+    /**
+     * Method to create a delta that contains the whole profile.
+     *
+     * @param profile the current profile
+     * @return the delta
+     */
+    public static ProfileDelta full(Profile profile) {
+        return new ProfileDelta(profile.getVersion(), profile.getTemplateVersion(), true, profile.getSections(),
+            List.of());
+    }
+}
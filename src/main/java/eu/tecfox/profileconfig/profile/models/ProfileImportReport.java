@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.util.List;
+
+/**
+ * Result of a bulk import of profiles.
+ *
+ * @param imported the number of imported profiles
+ * @param errors the records that were not imported
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record ProfileImportReport(int imported, List<RecordError> errors) {
+
+    /**
+     * A record that was not imported.
+     *
+     * @param index the position of the record in the import, starting at 0
+     * @param userId the id of the user of the record, if it could be read
+     * @param message the reason why the record was not imported
+     */
+    public record RecordError(int index, String userId, String message) { }
+}
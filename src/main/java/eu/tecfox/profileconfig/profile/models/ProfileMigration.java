@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.time.LocalDateTime;
+
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of merging all profiles with a template version.
+ *
+ * <p>
+ *     Holds the ID of the last profile that was processed, so an interrupted
+ *     migration can resume where it stopped.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "profileMigrations")
+public class ProfileMigration {
+
+    @Id
+    private String id;
+
+    private String templateId;
+
+    private Long templateVersion;
+
+    /**
+     * The ID of the last profile that was processed. Profiles are processed in order of their ID.
+     */
+    private String lastProfileId;
+
+    private long processed;
+
+    private long failed;
+
+    private boolean completed;
+
+    private LocalDateTime startedDate;
+
+    private LocalDateTime finishedDate;
+
+    /**
+     * Constructor to create a new migration for a template.
+     *
+     * @param template the template to merge all profiles with
+     */
+    public ProfileMigration(Template template) {
+        this.id = idOf(template);
+        this.templateId = template.getId();
+        this.templateVersion = template.getVersion();
+        this.startedDate = LocalDateTime.now();
+    }
+
+    /**
+     * Method to record a processed batch of profiles.
+     *
+     * @param lastProfileId the ID of the last profile in the batch
+     * @param processed the number of profiles in the batch
+     * @param failed the number of profiles in the batch that could not be merged or written
+     */
+    public void checkpoint(String lastProfileId, int processed, int failed) {
+        this.lastProfileId = lastProfileId;
+        this.processed += processed;
+        this.failed += failed;
+    }
+
+    /**
+     * Method to process all outdated profiles again, starting with the first one.
+     */
+    public void restart() {
+        this.lastProfileId = null;
+    }
+
+    /**
+     * Method to mark this migration as completed.
+     */
+    public void complete() {
+        this.completed = true;
+        this.finishedDate = LocalDateTime.now();
+    }
+
+    /**
+     * Builds the ID of the migration of a template version.
+     *
+     * @param template the template
+     * @return the ID of the migration
+     */
+    public static String idOf(Template template) {
+        return template.getId() + ":" + template.getVersion();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Revision of a profile in its history.
+ *
+ * <p>
+ *     A revision is either a snapshot that holds the whole profile or a diff to the
+ *     previous revision. Diffs hold changed elements by their identifier and only
+ *     hold whole sections if the sections were added or their structure changed.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "profileRevisions")
+public class ProfileRevision {
+
+    @Id
+    private String id;
+
+    private String profileId;
+
+    /**
+     * The version of the profile before the change, {@code null} for new profiles.
+     */
+    private Long fromVersion;
+
+    /**
+     * The version of the profile after the change.
+     */
+    private Long version;
+
+    /**
+     * The number of diffs since the last snapshot, {@code 0} for snapshots.
+     */
+    private int depth;
+
+    /**
+     * The whole profile, only set on snapshots.
+     */
+    private Profile snapshot;
+
+    /**
+     * The identifiers of all sections of the profile in their order.
+     */
+    private List<String> sectionOrder;
+
+    /**
+     * The added sections and the sections whose structure changed, with all their elements.
+     */
+    private List<Section> sections;
+
+    /**
+     * The changed elements of the other sections.
+     */
+    private List<ElementChange> elements;
+
+    private LocalDateTime createdDate;
+
+    /**
+     * Method to create a snapshot of a profile.
+     *
+     * @param previous the profile before the change, may be {@code null}
+     * @param current the profile after the change
+     * @return the snapshot
+     */
+    public static ProfileRevision snapshot(Profile previous, Profile current) {
+        ProfileRevision revision = new ProfileRevision(previous, current);
+        revision.snapshot = current;
+        return revision;
+    }
+
+    /**
+     * Method to create a diff to the previous revision of a profile.
+     *
+     * @param previous the profile before the change
+     * @param current the profile after the change
+     * @param depth the number of diffs since the last snapshot, including this one
+     * @param sections the added sections and the sections whose structure changed
+     * @param elements the changed elements of the other sections
+     * @return the diff
+     */
+    public static ProfileRevision diff(Profile previous, Profile current, int depth, List<Section> sections,
+        List<ElementChange> elements) {
+        ProfileRevision revision = new ProfileRevision(previous, current);
+        revision.depth = depth;
+        revision.sectionOrder = current.getSections().stream().map(Section::getIdentifier).toList();
+        revision.sections = sections;
+        revision.elements = elements;
+        return revision;
+    }
+
+    private ProfileRevision(Profile previous, Profile current) {
+        this.profileId = current.getId();
+        this.fromVersion = previous == null ? null : previous.getVersion();
+        this.version = current.getVersion();
+        this.createdDate = LocalDateTime.now();
+    }
+
+    /**
+     * Indicates if this revision holds the whole profile.
+     *
+     * @return true if this revision is a snapshot
+     */
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    /**
+     * An element that changed.
+     *
+     * @param section the identifier of the section of the element
+     * @param element the element after the change
+     */
+    public record ElementChange(String section, SectionElement element) { }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary of a stored profile, used to list profiles without reading their sections.
+ *
+ * @param id the id of the profile, used as key to request the next page
+ * @param userId the id of the user that owns the profile
+ * @param key the key of the template of the profile
+ * @param version the version of the profile
+ * @param templateVersion the version of the template the profile was merged with
+ * @param lastModifiedDate the date of the last change
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record ProfileSummary(String id, String userId, String key, Long version, Long templateVersion,
+                             LocalDateTime lastModifiedDate) { }
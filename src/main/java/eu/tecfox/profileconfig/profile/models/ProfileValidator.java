@@ -16,7 +16,12 @@
 
 package eu.tecfox.profileconfig.profile.models;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import eu.tecfox.profileconfig.config.ContextProvider;
 import eu.tecfox.profileconfig.template.TemplateService;
@@ -69,29 +74,53 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
      */
     @Override
     public boolean isValid(Profile profile, ConstraintValidatorContext context) {
+        if (context != null) {
+            context.disableDefaultConstraintViolation();
+        }
+        if (profile == null) {
+            return false;
+        }
+        Template template = (profile.getKey() == null ? templateService.getTemplate()
+            : templateService.getTemplate(profile.getKey())).orElse(null);
+        if (template == null) {
+            addViolation(context, "There is no template " + profile.getKey() + ".");
+            return false;
+        }
+        return isValid(profile, template, context);
+    }
+
+    /**
+     * Method to validate a profile against a specific template.
+     *
+     * <p>
+     *     Used to check profiles against a template that is not
+     *     saved yet. The template is only read.
+     * </p>
+     *
+     * @param profile the profile to validate
+     * @param template the template to validate against
+     * @param context context in which the constraint is evaluated, may be {@code null}
+     *                if no violation messages are needed
+     *
+     * @return {@code true} if the profile is valid
+     */
+    public boolean isValid(Profile profile, Template template, ConstraintValidatorContext context) {
 
         if (profile == null) {
             return false;
         }
 
         boolean isValid = true;
-        context.disableDefaultConstraintViolation();
-
-        Template template = templateService.getTemplate().get();
 
         // check if profile has sections
         if (profile.getSections() == null || profile.getSections().isEmpty()) {
-            context
-                .buildConstraintViolationWithTemplate("Your profile does not contain any sections.")
-                .addConstraintViolation();
+            addViolation(context, "Your profile does not contain any sections.");
             return false;
         }
 
         // check if profile has same amount of sections
         if (profile.getSections().size() != template.getSections().size()) {
-            context
-                .buildConstraintViolationWithTemplate("Your sections do not match the template.")
-                .addConstraintViolation();
+            addViolation(context, "Your sections do not match the template.");
             return false;
         }
         Iterator<Section> templateSections = template.getSections().iterator();
@@ -102,10 +131,8 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
 
             // if sections do not match
             if (!templateSection.equals(profileSection)) {
-                context
-                    .buildConstraintViolationWithTemplate("Section " + templateSection.getTitle() +
-                        " is missing in the profile.")
-                    .addConstraintViolation();
+                addViolation(context, "Section " + templateSection.getTitle() +
+                        " is missing in the profile.");
                 return false;
             } else {
                 isValid = validateSection(templateSection, profileSection, context) && isValid;
@@ -114,6 +141,79 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
         return isValid;
     }
 
+    /**
+     * Method to validate changes to a profile that was validated before.
+     *
+     * <p>
+     *     Incremental mode: only the changed sections are validated, so the cost depends
+     *     on the size of the change and not on the size of the profile. Each changed section
+     *     replaces the section with the same identifier in the previous profile, the other
+     *     sections are not validated again.
+     *     If the previous profile was not merged with this version of the template, it
+     *     cannot be trusted and the whole profile with the changes is validated.
+     * </p>
+     *
+     * @param previous the previously validated profile
+     * @param changedSections the changed sections
+     * @param template the template to validate against
+     * @param context context in which the constraint is evaluated, may be {@code null}
+     *                if no violation messages are needed
+     *
+     * @return {@code true} if the profile with the changes is valid
+     */
+    public boolean isValid(Profile previous, Collection<Section> changedSections, Template template,
+        ConstraintValidatorContext context) {
+        if (previous == null || previous.getSections() == null) {
+            return false;
+        }
+        Map<String, Section> changedByIdentifier = changedSections.stream()
+            .collect(Collectors.toMap(Section::getIdentifier, Function.identity(), (first, second) -> second));
+        if (template.getVersion() == null || !template.getVersion().equals(previous.getTemplateVersion())) {
+            Profile changed = new Profile(previous);
+            changed.setSections(previous.getSections().stream()
+                .map(section -> changedByIdentifier.getOrDefault(section.getIdentifier(), section))
+                .toList());
+            return isValid(changed, template, context);
+        }
+
+        Map<String, Section> templateSections = template.getSections().stream()
+            .collect(Collectors.toMap(Section::getIdentifier, Function.identity(), (first, second) -> first));
+        Set<String> previousSections = previous.getSections().stream()
+            .map(Section::getIdentifier)
+            .collect(Collectors.toSet());
+        boolean isValid = true;
+        for (Section changedSection: changedByIdentifier.values()) {
+            Section templateSection = templateSections.get(changedSection.getIdentifier());
+            if (templateSection == null || !previousSections.contains(changedSection.getIdentifier())) {
+                addViolation(context, "Your sections do not match the template.");
+                return false;
+            }
+            isValid = isValid(changedSection, templateSection, context) && isValid;
+        }
+        return isValid;
+    }
+
+    /**
+     * Method to validate a single section of a profile against the section of the template.
+     *
+     * <p>
+     *     Used to validate changes to a single section without validating the whole profile.
+     * </p>
+     *
+     * @param profileSection the section of the profile
+     * @param templateSection the section from the template to validate against
+     * @param context context in which the constraint is evaluated, may be {@code null}
+     *                if no violation messages are needed
+     * @return {@code true} if the section is valid
+     */
+    public boolean isValid(Section profileSection, Section templateSection, ConstraintValidatorContext context) {
+        if (profileSection == null || templateSection == null || !templateSection.equals(profileSection)) {
+            addViolation(context, "Your section does not match the template.");
+            return false;
+        }
+        return validateSection(templateSection, profileSection, context);
+    }
+
     /**
      * Method to validate a section.
      *
@@ -131,10 +231,8 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
         boolean isValid = true;
         // check if section has elements
         if (profileSection.getElements() == null || profileSection.getElements().isEmpty()) {
-            context
-                .buildConstraintViolationWithTemplate("Section " + templateSection.getTitle() +
-                    " does not contain any elements.")
-                .addConstraintViolation();
+            addViolation(context, "Section " + templateSection.getTitle() +
+                    " does not contain any elements.");
             return false;
         }
 
@@ -154,10 +252,8 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
                 isDuplicate = profileElement.getIdentifier().equals(lastId);
                 // if no duplicate is allowed, break
                 if (isDuplicate && !allowDuplicate) {
-                    context
-                        .buildConstraintViolationWithTemplate("Elements of section " + templateSection.getTitle() +
-                            " do not match the template.")
-                        .addConstraintViolation();
+                    addViolation(context, "Elements of section " + templateSection.getTitle() +
+                            " do not match the template.");
                     isValid = false;
                     break;
                 }
@@ -189,10 +285,8 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
                     }
                 }
                 // if nothing matches, break
-                context
-                    .buildConstraintViolationWithTemplate("Elements of section " + templateSection.getTitle() +
-                        " do not match the template.")
-                    .addConstraintViolation();
+                addViolation(context, "Elements of section " + templateSection.getTitle() +
+                        " do not match the template.");
                 isValid = false;
                 break;
             }
@@ -210,9 +304,7 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
      */
     private boolean validateElement(SectionElement templateElement, SectionElement profileElement, ConstraintValidatorContext context) {
         if (!hasValue(templateElement, profileElement, context)) {
-            context
-                .buildConstraintViolationWithTemplate("Element " + templateElement.getKey() + " missing values.")
-                .addConstraintViolation();
+            addViolation(context, "Element " + templateElement.getKey() + " missing values.");
             return false;
         }
         return true;
@@ -250,9 +342,7 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
         else if (profileElement instanceof NestedElement) {
             return validateNestedElement((NestedElement) templateElement, (NestedElement) profileElement, context);
         }
-        context
-            .buildConstraintViolationWithTemplate("Unknown Element " + profileElement.getKey())
-            .addConstraintViolation();
+        addViolation(context, "Unknown Element " + profileElement.getKey());
         return false;
     }
 
@@ -267,9 +357,7 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
     private boolean validateNestedElement(NestedElement templateElement, NestedElement profileElement, ConstraintValidatorContext context) {
         boolean valid;
         if (!templateElement.getType().equals(profileElement.getType())) {
-            context
-                .buildConstraintViolationWithTemplate("Wrong element as key in " + templateElement.getKey())
-                .addConstraintViolation();
+            addViolation(context, "Wrong element as key in " + templateElement.getKey());
         }
         valid = hasValue((SectionElement) templateElement.getKey(), (SectionElement) profileElement.getKey(), context);
 
@@ -293,4 +381,16 @@ public class ProfileValidator implements ConstraintValidator<ValidProfile, Profi
 
     }
 
+    /**
+     * Method to add a violation message to the context, if a context exists.
+     *
+     * @param context context in which the constraint is evaluated, may be {@code null}
+     * @param message the violation message
+     */
+    private static void addViolation(ConstraintValidatorContext context, String message) {
+        if (context != null) {
+            context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        }
+    }
+
 }
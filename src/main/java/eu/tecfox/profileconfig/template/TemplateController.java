@@ -16,13 +16,17 @@
 
 package eu.tecfox.profileconfig.template;
 
+import java.util.List;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.exception.BindingResultErrorFormatter;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.TemplateImpactReport;
 import eu.tecfox.profileconfig.template.models.ValidTemplate;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -30,7 +34,9 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -45,11 +51,46 @@ import org.springframework.web.bind.annotation.RestController;
 public class TemplateController {
 
     private final TemplateService templateService;
+    private final TemplatePayloadCache templatePayloadCache;
+    private final TemplateImpactAnalyzer templateImpactAnalyzer;
 
+    /**
+     * Get the current template.
+     *
+     * <p>
+     *     Serves the cached payload of the template version with a strong ETag.
+     *     Requests with a matching If-None-Match header are answered with 304: Not Modified.
+     * </p>
+     *
+     * @param key the key of the template, the default template is returned if no key is given
+     * @param acceptEncoding the accepted encodings of the client
+     * @return the serialized template
+     * @throws JsonProcessingException if serialization fails
+     */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Template> getTemplate() {
-        Template template = templateService.getTemplate().orElseThrow(() -> new ApiRequestException("No template found."));
-        return ResponseEntity.ok().body(template);
+    public ResponseEntity<byte[]> getTemplate(@RequestParam(value = "key", required = false) String key,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+        throws JsonProcessingException {
+        Template template = (key == null ? templateService.getTemplate() : templateService.getTemplate(key))
+            .orElseThrow(() -> new ApiRequestException("No template found."));
+        TemplatePayload payload = templatePayloadCache.get(template);
+
+        // a GET response with an ETag is answered with 304 by spring if If-None-Match matches
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response
+                .eTag(payload.gzipETag())
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(payload.gzip());
+        }
+        return response.eTag(payload.eTag()).body(payload.json());
+    }
+
+    @GetMapping(value = "/keys", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<String>> getTemplateKeys() {
+        return ResponseEntity.ok().body(templateService.getTemplates().stream().map(Template::getKey).toList());
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -60,4 +101,38 @@ public class TemplateController {
         }
         return ResponseEntity.ok().body(templateService.saveTemplate(template));
     }
+
+    /**
+     * Dry run of saving a template.
+     *
+     * <p>
+     *     Checks all existing profiles against the template without saving it.
+     * </p>
+     *
+     * @param template the candidate template
+     * @param bindingResult the validation result of the template
+     * @return a report how many profiles would be invalid or lose values
+     * @throws JsonProcessingException if the validation errors cannot be serialized
+     */
+    @PostMapping(value = "/impact", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TemplateImpactReport> analyzeTemplate(@RequestBody @Validated(ValidTemplate.class) Template template,
+        BindingResult bindingResult) throws JsonProcessingException {
+        if (bindingResult.hasErrors()) {
+            throw new ApiRequestException(BindingResultErrorFormatter.getErrorMessagesAsJson(bindingResult));
+        }
+        return ResponseEntity.ok().body(templateImpactAnalyzer.analyze(template));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String encoding: acceptEncoding.split(",")) {
+            String[] parts = encoding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
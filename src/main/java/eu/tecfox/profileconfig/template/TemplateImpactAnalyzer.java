@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import eu.tecfox.profileconfig.profile.ProfileRepository;
+import eu.tecfox.profileconfig.profile.ProfileService;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileValidator;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.TemplateImpactReport;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.DateRange;
+import eu.tecfox.profileconfig.template.models.section.elements.NestedElement;
+import eu.tecfox.profileconfig.template.models.section.elements.NestedValue;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Checks what saving a template would do to the existing profiles.
+ *
+ * <p>
+ *     Streams all profiles from a database cursor and checks them in parallel
+ *     batches against a candidate template. Nothing is saved.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Service
+@RequiredArgsConstructor
+public class TemplateImpactAnalyzer {
+
+    static final int BATCH_SIZE = 500;
+    static final int SAMPLE_SIZE = 100;
+    private static final int PARALLEL_BATCHES = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final ProfileRepository profileRepository;
+    private final ProfileService profileService;
+    private final ProfileValidator profileValidator;
+    private final TemplateService templateService;
+
+    /**
+     * Method to analyze the impact of a template on all existing profiles.
+     *
+     * <p>
+     *     Each profile of the template key is validated against the template and merged with it.
+     *     A profile loses values if the merged profile holds fewer values than
+     *     the profile itself.
+     *     Batches are read from the cursor while previous batches are checked.
+     *     The number of batches in memory is limited.
+     * </p>
+     *
+     * @param template the candidate template, will be prepared like a template that is saved
+     * @return the impact report
+     */
+    public TemplateImpactReport analyze(Template template) {
+        long start = System.nanoTime();
+        templateService.prepareTemplate(template);
+
+        Impact impact = new Impact();
+        Semaphore batchesInFlight = new Semaphore(PARALLEL_BATCHES);
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        try (Stream<Profile> profiles = profileRepository.streamByTemplateKey(template.getKey())) {
+            Iterator<Profile> iterator = profiles.iterator();
+            while (iterator.hasNext()) {
+                List<Profile> batch = new ArrayList<>(BATCH_SIZE);
+                while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                    batch.add(iterator.next());
+                }
+                batchesInFlight.acquireUninterruptibly();
+                batches.add(CompletableFuture
+                    .runAsync(() -> batch.forEach(profile -> check(profile, template, impact)))
+                    .whenComplete((result, e) -> batchesInFlight.release()));
+            }
+        }
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+
+        return new TemplateImpactReport(
+            impact.checked.sum(),
+            impact.invalid.sum(),
+            impact.losingValues.sum(),
+            impact.valuesLost.sum(),
+            impact.mergeFailures.sum(),
+            new ArrayList<>(impact.invalidUserIds),
+            new ArrayList<>(impact.userIdsLosingValues),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Method to check a single profile against the template.
+     *
+     * @param profile the profile to check
+     * @param template the candidate template
+     * @param impact the collected results
+     */
+    private void check(Profile profile, Template template, Impact impact) {
+        impact.checked.increment();
+        if (!profileValidator.isValid(profile, template, null)) {
+            impact.invalid.increment();
+            impact.sample(impact.invalidUserIds, profile.getUserId());
+        }
+
+        int valuesBefore = countValues(profile.getSections());
+        int valuesAfter;
+        try {
+            valuesAfter = countValues(profileService.mergeWithTemplate(profile, template).getSections());
+        } catch (RuntimeException e) {
+            impact.mergeFailures.increment();
+            return;
+        }
+        if (valuesAfter < valuesBefore) {
+            impact.losingValues.increment();
+            impact.valuesLost.add(valuesBefore - valuesAfter);
+            impact.sample(impact.userIdsLosingValues, profile.getUserId());
+        }
+    }
+
+    /**
+     * Method to count all filled values in a list of sections.
+     *
+     * @param sections the sections to count the values of
+     * @return the number of filled values
+     */
+    static int countValues(List<Section> sections) {
+        if (sections == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Section section: sections) {
+            if (section == null || section.getElements() == null) {
+                continue;
+            }
+            for (SectionElement element: section.getElements()) {
+                count += countValues(element);
+            }
+        }
+        return count;
+    }
+
+    private static int countValues(SectionElement element) {
+        if (element instanceof NestedElement nestedElement) {
+            int count = countValues((SectionElement) nestedElement.getKey());
+            if (nestedElement.getValue() != null) {
+                for (NestedValue nestedValue: nestedElement.getValue()) {
+                    count += countValues((SectionElement) nestedValue);
+                }
+            }
+            return count;
+        }
+        return element != null && hasValue(element.getValue()) ? 1 : 0;
+    }
+
+    private static boolean hasValue(Object value) {
+        if (value instanceof String string) {
+            return !string.isBlank();
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (value instanceof DateRange dateRange) {
+            return dateRange.getFrom() != null || dateRange.getTo() != null;
+        }
+        return value != null;
+    }
+
+    /**
+     * Thread safe collector for the results of all checks.
+     */
+    private static class Impact {
+        private final LongAdder checked = new LongAdder();
+        private final LongAdder invalid = new LongAdder();
+        private final LongAdder losingValues = new LongAdder();
+        private final LongAdder valuesLost = new LongAdder();
+        private final LongAdder mergeFailures = new LongAdder();
+        private final List<String> invalidUserIds = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> userIdsLosingValues = Collections.synchronizedList(new ArrayList<>());
+
+        private void sample(List<String> userIds, String userId) {
+            synchronized (userIds) {
+                if (userIds.size() < SAMPLE_SIZE) {
+                    userIds.add(userId);
+                }
+            }
+        }
+    }
+}
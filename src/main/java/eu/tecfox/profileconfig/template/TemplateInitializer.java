@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the initial template if the database is empty.
+ *
+ * <p>
+ *     The initial template is packaged as classpath resource and saved
+ *     in the background once the application is ready, so startup does
+ *     not wait for the database.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class TemplateInitializer {
+
+    static final String INITIAL_TEMPLATE = "template/profileTemplate.json";
+
+    private final TemplateService templateService;
+
+    /**
+     * Method to load the initial template if the database is empty.
+     *
+     * @throws IOException if json deserialization fails.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void initTemplate() throws IOException {
+        if (templateService.getTemplate().isPresent()) {
+            return;
+        }
+        try (InputStream inputStream = new ClassPathResource(INITIAL_TEMPLATE).getInputStream()) {
+            Template initTemplate = new ObjectMapper().readValue(inputStream, Template.class);
+            templateService.saveTemplate(initTemplate);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Serialized representation of a template version.
+ *
+ * <p>
+ *     Holds the plain and the gzip compressed json of a template together
+ *     with a strong ETag for each of them, so that both can be served
+ *     without serializing the template again.
+ * </p>
+ *
+ * @param version the template version the payload was built from
+ * @param json the serialized template
+ * @param gzip the gzip compressed serialized template
+ * @param eTag the strong ETag of the plain json
+ * @param gzipETag the strong ETag of the gzip compressed json
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record TemplatePayload(
+    String version,
+    byte[] json,
+    byte[] gzip,
+    String eTag,
+    String gzipETag
+) {
+
+    /**
+     * Builds a payload from serialized template json.
+     *
+     * @param version the template version
+     * @param json the serialized template
+     * @return the payload with compressed json and ETags
+     */
+    public static TemplatePayload of(String version, byte[] json) {
+        String hash = DigestUtils.md5DigestAsHex(json);
+        return new TemplatePayload(version, json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.tecfox.profileconfig.template.models.Template;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache for the serialized template.
+ *
+ * <p>
+ *     Templates rarely change but are requested by every client. The
+ *     serialized payload is built once per template version and reused until
+ *     a new version of the template is saved.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class TemplatePayloadCache {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The payload of the latest known version of each template.
+     */
+    private final Map<String, TemplatePayload> payloadsById = new ConcurrentHashMap<>();
+
+    /**
+     * Get the serialized payload of a template.
+     *
+     * <p>
+     *     Templates that were not saved yet have no version and are
+     *     serialized on every call.
+     * </p>
+     *
+     * @param template the template to serialize
+     * @return the cached payload of the template version
+     * @throws JsonProcessingException if serialization fails
+     */
+    public TemplatePayload get(Template template) throws JsonProcessingException {
+        if (template.getId() == null || template.getVersion() == null) {
+            return TemplatePayload.of(null, objectMapper.writeValueAsBytes(template));
+        }
+        String version = template.getId() + ":" + template.getVersion();
+        TemplatePayload payload = payloadsById.get(template.getId());
+        if (payload == null || !version.equals(payload.version())) {
+            payload = TemplatePayload.of(version, objectMapper.writeValueAsBytes(template));
+            payloadsById.put(template.getId(), payload);
+        }
+        return payload;
+    }
+}
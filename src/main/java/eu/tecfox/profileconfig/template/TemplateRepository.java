@@ -16,6 +16,8 @@
 
 package eu.tecfox.profileconfig.template;
 
+import java.util.Optional;
+
 import eu.tecfox.profileconfig.template.models.Template;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -29,4 +31,5 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface TemplateRepository extends MongoRepository<Template, String> {
+    Optional<Template> findByKey(String key);
 }
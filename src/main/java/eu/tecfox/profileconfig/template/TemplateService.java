@@ -16,6 +16,7 @@
 
 package eu.tecfox.profileconfig.template;
 
+import java.util.List;
 import java.util.Optional;
 
 import eu.tecfox.profileconfig.template.models.Template;
@@ -31,6 +32,29 @@ public interface TemplateService {
 
     Optional<Template> getTemplate();
 
+    /**
+     * Get a template by its key.
+     *
+     * @param key the key of the template
+     * @return an optional with the template if it exists
+     */
+    Optional<Template> getTemplate(String key);
+
+    /**
+     * Get a template by its ID.
+     *
+     * @param id the ID of the template
+     * @return an optional with the template if it exists
+     */
+    Optional<Template> getTemplateById(String id);
+
+    /**
+     * Get all templates.
+     *
+     * @return all templates ordered by key
+     */
+    List<Template> getTemplates();
+
     Template saveTemplate(Template template);
 
     void prepareTemplate(Template template);
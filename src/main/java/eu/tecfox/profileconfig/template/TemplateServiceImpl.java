@@ -16,28 +16,36 @@
 
 package eu.tecfox.profileconfig.template;
 
-import java.io.IOException;
-import java.nio.file.Paths;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.tecfox.profileconfig.template.models.Template;
 import eu.tecfox.profileconfig.template.models.section.Section;
 import eu.tecfox.profileconfig.template.models.section.elements.NestedElement;
 import eu.tecfox.profileconfig.template.models.section.elements.NestedValue;
 import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
-import jakarta.annotation.PostConstruct;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * Implementation of the {@link TemplateService} interface with all business
  * logic related to templates.
  *
+ * <p>
+ *     All templates are held in memory, indexed by key and ID. The cached
+ *     templates are shared with all callers and must be treated as read-only.
+ * </p>
+ *
  * @author Valentin Laucht
  * @version 1.0
  */
@@ -46,41 +54,104 @@ import org.springframework.stereotype.Service;
 public class TemplateServiceImpl implements TemplateService {
 
     private final TemplateRepository templateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Template> templatesByKey = new ConcurrentHashMap<>();
+    private final Map<String, Template> templatesById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
 
     /**
-     * Method to load an initial template if the database is empty.
-     * @throws IOException if json deserialization fails.
+     * Get the default template.
+     *
+     * @return an optional with the template if it exists
      */
-    @PostConstruct
-    private void initTemplate() throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        Optional<Template> template = getTemplate();
-        if (template.isEmpty()) {
-            String json = mapper.readTree(
-                Paths.get("./src/main/java/eu/tecfox/profileconfig/template/profileTemplate.json").toFile()).toString();
-            Template initTemplate = mapper.readValue(json, Template.class);
-            saveTemplate(initTemplate);
-        }
+    @Override
+    public Optional<Template> getTemplate() {
+        return getTemplate(Template.DEFAULT_KEY);
     }
 
     /**
-     * Get the template from the database.
+     * Get a template by its key.
      *
      * <p>
-     *     Only one template can exist at a time. Thus, get the first entry.
+     *     Served from memory. Templates that are not in memory yet, e.g. because
+     *     another instance saved them, are looked up by the indexed key.
      * </p>
      *
+     * @param key the key of the template
      * @return an optional with the template if it exists
      */
     @Override
-    public Optional<Template> getTemplate() {
+    public Optional<Template> getTemplate(String key) {
+        loadTemplates();
+        Template template = templatesByKey.get(key);
+        if (template == null) {
+            template = templateRepository.findByKey(key).orElse(null);
+            if (template != null) {
+                cache(template);
+            }
+        }
+        return Optional.ofNullable(template);
+    }
+
+    /**
+     * Get a template by its ID.
+     *
+     * @param id the ID of the template
+     * @return an optional with the template if it exists
+     */
+    @Override
+    public Optional<Template> getTemplateById(String id) {
+        loadTemplates();
+        Template template = templatesById.get(id);
+        if (template == null) {
+            template = templateRepository.findById(id).orElse(null);
+            if (template != null) {
+                cache(template);
+            }
+        }
+        return Optional.ofNullable(template);
+    }
+
+    /**
+     * Get all templates.
+     *
+     * @return all templates ordered by key
+     */
+    @Override
+    public List<Template> getTemplates() {
+        loadTemplates();
+        return templatesByKey.values().stream()
+            .sorted(Comparator.comparing(Template::getKey))
+            .toList();
+    }
+
+    /**
+     * Method to reload all templates from the database.
+     *
+     * <p>
+     *     Picks up templates that were saved or removed by other instances.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${template.cache.refresh-interval:PT30S}",
+        initialDelayString = "${template.cache.refresh-interval:PT30S}")
+    public void refreshTemplates() {
         List<Template> templates = templateRepository.findAll();
-        return templates.isEmpty() ? Optional.empty() : Optional.of(templates.get(0));
+        templates.forEach(this::cache);
+        Set<String> keys = templates.stream().map(Template::getKey).collect(Collectors.toSet());
+        Set<String> ids = templates.stream().map(Template::getId).collect(Collectors.toSet());
+        templatesByKey.keySet().retainAll(keys);
+        templatesById.keySet().retainAll(ids);
+        loaded = true;
     }
 
     /**
      * Save the template to the database.
      *
+     * <p>
+     *     Publishes a {@link TemplateSavedEvent} with the saved template.
+     * </p>
+     *
      * @param template the template
      * @return the saved template
      */
@@ -88,15 +159,19 @@ public class TemplateServiceImpl implements TemplateService {
     public Template saveTemplate(Template template) {
         prepareTemplate(template);
 
-        return templateRepository.save(template);
+        Template savedTemplate = templateRepository.save(template);
+        cache(savedTemplate);
+        eventPublisher.publishEvent(new TemplateSavedEvent(savedTemplate));
+        return savedTemplate;
     }
 
     /**
      * Method to prepare a template before it is saved to the database.
      *
      * <p>
-     *     Ensures that the id matches the id of an existing template so that
-     *     it gets overwritten.
+     *     Templates without a key get the default key.
+     *     Ensures that the id and version match the existing template with the
+     *     same key so that it gets overwritten.
      *     Fills identifiers for each section element, if no identifier exists.
      *     Identifiers are used to identify an element, even if its name changes.
      * </p>
@@ -105,8 +180,15 @@ public class TemplateServiceImpl implements TemplateService {
      */
     @Override
     public void prepareTemplate(Template template) {
-        // set template id so it overrides the existing template
-        getTemplate().ifPresent(value -> template.setId(value.getId()));
+        if (template.getKey() == null || template.getKey().isBlank()) {
+            template.setKey(Template.DEFAULT_KEY);
+        }
+
+        // set template id and version so it overrides the existing template
+        getTemplate(template.getKey()).ifPresent(value -> {
+            template.setId(value.getId());
+            template.setVersion(value.getVersion());
+        });
 
         // prepare identifiers for new elements
         for (Section section: template.getSections()) {
@@ -150,4 +232,37 @@ public class TemplateServiceImpl implements TemplateService {
     private void clearValues(Template template) {
         template.getSections().forEach(section -> section.getElements().forEach(SectionElement::clearValue));
     }
+
+    /**
+     * Method to load all templates into memory on first access.
+     */
+    private void loadTemplates() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    refreshTemplates();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to put a template into the in-memory index.
+     *
+     * <p>
+     *     Templates that were saved before keys existed are the default template.
+     * </p>
+     *
+     * @param template the template to cache
+     */
+    private void cache(Template template) {
+        if (template.getKey() == null) {
+            template.setKey(Template.DEFAULT_KEY);
+        }
+        Template previous = templatesByKey.put(template.getKey(), template);
+        if (previous != null && !previous.getId().equals(template.getId())) {
+            templatesById.remove(previous.getId());
+        }
+        templatesById.put(template.getId(), template);
+    }
 }
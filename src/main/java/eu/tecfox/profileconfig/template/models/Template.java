@@ -20,6 +20,7 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import eu.tecfox.profileconfig.template.models.elements.Footer;
 import eu.tecfox.profileconfig.template.models.elements.Header;
@@ -30,11 +31,13 @@ import eu.tecfox.profileconfig.template.models.style.Style;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -50,10 +53,31 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Template extends AuditMetaData {
 
+    /**
+     * The key of the template that is used if no key is given.
+     */
+    public static final String DEFAULT_KEY = "default";
+
     @Id
     @JsonIgnore
     private String id;
 
+    /**
+     * Incremented on every save. Identifies a specific state of the document,
+     * e.g. to build ETags or detect concurrent modifications.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Unique name of the template, e.g. a department or customer.
+     * Templates without a key are the default template.
+     */
+    @Pattern(regexp = "^[a-zA-Z0-9_-]+$", message = "Template key may only contain letters, digits, '-' and '_'.",
+        groups = {ValidTemplate.class})
+    private String key;
+
     @NotBlank(message = "Template must have a title.", groups = {ValidTemplate.class})
     private String title;
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template.models;
+
+import java.util.List;
+
+/**
+ * Result of checking all existing profiles against a template before it is saved.
+ *
+ * @param profilesChecked the number of checked profiles
+ * @param invalidProfiles the number of profiles that are not valid for the template
+ * @param profilesLosingValues the number of profiles that lose values when merged with the template
+ * @param valuesLost the total number of values that are lost when merging all profiles
+ * @param mergeFailures the number of profiles that could not be merged with the template
+ * @param invalidUserIds the user ids of some invalid profiles
+ * @param userIdsLosingValues the user ids of some profiles that lose values
+ * @param durationMillis the time the analysis took in milliseconds
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+public record TemplateImpactReport(
+    long profilesChecked,
+    long invalidProfiles,
+    long profilesLosingValues,
+    long valuesLost,
+    long mergeFailures,
+    List<String> invalidUserIds,
+    List<String> userIdsLosingValues,
+    long durationMillis
+) { }
@@ -16,6 +16,7 @@
 
 package eu.tecfox.profileconfig.template.models.elements;
 
+import java.util.ArrayList;
 import java.util.List;
 import lombok.Data;
 
@@ -36,4 +37,17 @@ public class Footer {
     private List<String> leftSection;
     private List<String> middleSection;
     private List<String> rightSection;
+
+    /**
+     * Method to create a copy of this footer.
+     *
+     * @return a new footer with copies of the sections
+     */
+    public Footer copy() {
+        Footer copy = new Footer();
+        copy.setLeftSection(leftSection == null ? null : new ArrayList<>(leftSection));
+        copy.setMiddleSection(middleSection == null ? null : new ArrayList<>(middleSection));
+        copy.setRightSection(rightSection == null ? null : new ArrayList<>(rightSection));
+        return copy;
+    }
 }
@@ -32,4 +32,15 @@ import lombok.Data;
 @Data
 public class Header {
     private String logo;
+
+    /**
+     * Method to create a copy of this header.
+     *
+     * @return a new header with the same values
+     */
+    public Header copy() {
+        Header copy = new Header();
+        copy.setLogo(logo);
+        return copy;
+    }
 }
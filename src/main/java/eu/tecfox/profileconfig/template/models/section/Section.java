@@ -16,10 +16,11 @@
 
 package eu.tecfox.profileconfig.template.models.section;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -66,37 +67,98 @@ public class Section implements Patchable<Section> {
     }
 
 
+    /**
+     * Method to merge the values of a section into this section.
+     *
+     * <p>
+     *     Replaces the elements of this section with the merged elements,
+     *     see {@link #mergedWith(Section)}.
+     * </p>
+     *
+     * @param entityToMerge the section with the values to merge
+     */
     @Override
     public void patch(Section entityToMerge) {
         if (entityToMerge == null) {
             return;
         }
-        entityToMerge.getElements().retainAll(this.elements);
-        final Map<String, SectionElement> mergeValuesMap = entityToMerge.getElements()
-            .stream()
-            .distinct()
-            .collect(Collectors.toMap(SectionElement::getIdentifier, Function.identity()));
-        for (int i = 0; i < this.elements.size(); i++) {
-            if (this.elements.get(i).isUnique()) {
-                this.elements.get(i).patch(mergeValuesMap.get(this.elements.get(i).getIdentifier()));
-            } else {
-                int finalI = i;
-                List<SectionElement> patched =
-                    entityToMerge.getElements()
-                        .stream()
-                        .filter(s -> s.equals(this.elements.get(finalI)))
-                        .toList()
-                        .stream()
-                        .map(multiEntryElement -> {
-                            this.elements.get(finalI).patch(multiEntryElement);
-                            return this.elements.get(finalI);
-                        }).toList();
-                int idx = this.elements.indexOf(this.elements.get(i));
-                this.elements.remove(this.elements.get(i));
-                this.elements.addAll(idx, patched);
-                i += patched.size() - 1;
+        this.elements = mergeElements(entityToMerge);
+    }
+
+    /**
+     * Method to create a copy of this section with the values of another section.
+     *
+     * <p>
+     *     This section is not modified. The copy holds its own copy of the style and
+     *     of every element, so merged profiles can be changed without changing a
+     *     shared template.
+     * </p>
+     *
+     * @param entityToMerge the section with the values to merge, may be null
+     * @return a new section with the merged elements
+     */
+    public Section mergedWith(Section entityToMerge) {
+        Section merged = new Section();
+        merged.setTitle(title);
+        merged.setShowTitle(showTitle);
+        merged.setStyle(style == null ? null : style.copy());
+        merged.setIdentifier(identifier);
+        merged.setElements(entityToMerge == null
+            ? elements.stream().map(SectionElement::copy).collect(Collectors.toCollection(ArrayList::new))
+            : mergeElements(entityToMerge));
+        return merged;
+    }
+
+    /**
+     * Method to merge the elements of a section with the elements of this section.
+     *
+     * <p>
+     *     This section defines which elements exist. Entries of the section to merge
+     *     are matched by identifier. Unique elements take the values of their entry,
+     *     non-unique elements are repeated once per entry and removed if there is none.
+     *     Entries without a matching element are dropped.
+     * </p>
+     *
+     * <p>
+     *     The entries are grouped by identifier once and the merged element list is
+     *     built in a single pass, so the merge is linear in the number of elements.
+     *     Elements of this section are never modified, every entry is patched into
+     *     its own copy of the element.
+     * </p>
+     *
+     * @param entityToMerge the section with the values to merge
+     * @return the merged elements
+     */
+    private List<SectionElement> mergeElements(Section entityToMerge) {
+        final Map<String, List<SectionElement>> entriesByIdentifier = new HashMap<>();
+        for (SectionElement entry: entityToMerge.getElements()) {
+            entriesByIdentifier.computeIfAbsent(entry.getIdentifier(), identifier -> new ArrayList<>(1)).add(entry);
+        }
+
+        List<SectionElement> merged =
+            new ArrayList<>(Math.max(this.elements.size(), entityToMerge.getElements().size()));
+        for (SectionElement element: this.elements) {
+            List<SectionElement> entries = entriesByIdentifier.getOrDefault(element.getIdentifier(), List.of());
+            if (element.isUnique()) {
+                merged.add(entries.stream()
+                    .filter(element::equals)
+                    .findFirst()
+                    .map(entry -> patchedCopy(element, entry))
+                    .orElseGet(element::copy));
+                continue;
+            }
+            for (SectionElement entry: entries) {
+                if (element.equals(entry)) {
+                    merged.add(patchedCopy(element, entry));
+                }
             }
         }
+        return merged;
+    }
 
+    private static SectionElement patchedCopy(SectionElement element, SectionElement entry) {
+        SectionElement copy = element.copy();
+        copy.patch(entry);
+        return copy;
     }
 }
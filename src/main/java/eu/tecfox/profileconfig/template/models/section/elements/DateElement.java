@@ -66,6 +66,14 @@ public class DateElement extends SectionElement implements NestedKey, NestedValu
         this.setValue(null);
     }
 
+    @Override
+    public DateElement copy() {
+        DateElement copy = copyAttributesTo(new DateElement());
+        copy.setKey(key);
+        copy.setValue(value);
+        return copy;
+    }
+
     @Override
     public void patch(SectionElement entityToMerge) {
         if (!(entityToMerge instanceof DateElement)) {
@@ -60,6 +60,19 @@ public class DateRangeElement extends SectionElement implements NestedKey, Neste
         this.setValue(null);
     }
 
+    @Override
+    public DateRangeElement copy() {
+        DateRangeElement copy = copyAttributesTo(new DateRangeElement());
+        copy.setKey(key);
+        if (value != null) {
+            DateRange range = new DateRange();
+            range.setFrom(value.getFrom());
+            range.setTo(value.getTo());
+            copy.setValue(range);
+        }
+        return copy;
+    }
+
     @Override
     public void patch(SectionElement entityToMerge) {
         if (!(entityToMerge instanceof DateRangeElement)) {
@@ -16,13 +16,19 @@
 
 package eu.tecfox.profileconfig.template.models.section.elements;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.Transient;
 
 /**
  * Implementation of a {@link SectionElement} used to
@@ -42,6 +48,27 @@ public class NestedElement extends SectionElement {
     private List<NestedValue> value;
     private boolean highlightNestedKeys;
 
+    /**
+     * The plan to merge values into this element, built on the first merge and
+     * shared with all copies. It only depends on the values of the template.
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile NestedMergePlan mergePlan;
+
+    /**
+     * Method to set the values of this element, drops the merge plan built for the old values.
+     *
+     * @param value the values of this element
+     */
+    public void setValue(List<NestedValue> value) {
+        this.value = value;
+        this.mergePlan = null;
+    }
+
     @Override
     public String getType() {
         return "nested";
@@ -59,6 +86,17 @@ public class NestedElement extends SectionElement {
         value.forEach(NestedValue::clearValue);
     }
 
+    @Override
+    public NestedElement copy() {
+        NestedElement copy = copyAttributesTo(new NestedElement());
+        copy.setKey((NestedKey) ((SectionElement) key).copy());
+        copy.setValue(value.stream().map(nestedValue -> (NestedValue) ((SectionElement) nestedValue).copy())
+            .collect(Collectors.toCollection(ArrayList::new)));
+        copy.setHighlightNestedKeys(highlightNestedKeys);
+        copy.mergePlan = mergePlan();
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this) {
@@ -89,15 +127,18 @@ public class NestedElement extends SectionElement {
         thisEntityKey.patch(entityToMergeKey);
 
         List<NestedValue> thisEntityValues = this.getValue();
-        List<NestedValue> entityToMergeValues = ((NestedElement)entityToMerge).getValue();
-        entityToMergeValues.retainAll(thisEntityValues);
-
-        final Map<Object, NestedValue> mergeValuesMap = entityToMergeValues.stream()
-            .collect(Collectors.toMap(NestedValue::getIdentifier, Function.identity()));
+        NestedValue[] matches = mergePlan().match(((NestedElement) entityToMerge).getValue());
+        for (int i = 0; i < matches.length; i++) {
+            ((SectionElement) thisEntityValues.get(i)).patch((SectionElement) matches[i]);
+        }
+    }
 
-        for (NestedValue sectionElement: thisEntityValues) {
-            ((SectionElement) sectionElement).patch(
-                (SectionElement) mergeValuesMap.get(sectionElement.getIdentifier()));
+    private NestedMergePlan mergePlan() {
+        NestedMergePlan plan = mergePlan;
+        if (plan == null || !plan.fits(value.size())) {
+            plan = NestedMergePlan.of(value);
+            mergePlan = plan;
         }
+        return plan;
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.template.models.section.elements;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed plan to merge the values of a {@link NestedElement}.
+ *
+ * <p>
+ *     Maps the identifier of every value of a template element to a slot. The plan
+ *     only depends on the template, so it is built once and shared by all copies
+ *     of the element. Values with the same identifier share a slot.
+ * </p>
+ *
+ * @author Valentin Laucht
+ * @version 1.0
+ */
+final class NestedMergePlan {
+
+    private final Map<String, Integer> slotByIdentifier;
+    private final int[] slotOfValue;
+
+    private NestedMergePlan(Map<String, Integer> slotByIdentifier, int[] slotOfValue) {
+        this.slotByIdentifier = slotByIdentifier;
+        this.slotOfValue = slotOfValue;
+    }
+
+    /**
+     * Method to build the plan for the values of a template element.
+     *
+     * @param values the values of the template element
+     * @return the plan
+     */
+    static NestedMergePlan of(List<NestedValue> values) {
+        Map<String, Integer> slotByIdentifier = new HashMap<>();
+        int[] slotOfValue = new int[values.size()];
+        for (int i = 0; i < slotOfValue.length; i++) {
+            String identifier = values.get(i).getIdentifier();
+            if (identifier == null) {
+                slotOfValue[i] = -1;
+                continue;
+            }
+            slotByIdentifier.putIfAbsent(identifier, slotByIdentifier.size());
+            slotOfValue[i] = slotByIdentifier.get(identifier);
+        }
+        return new NestedMergePlan(Map.copyOf(slotByIdentifier), slotOfValue);
+    }
+
+    /**
+     * Indicates if this plan was built for the given number of values.
+     *
+     * @param size the number of values
+     * @return {@code true} if the plan can be used for the values
+     */
+    boolean fits(int size) {
+        return slotOfValue.length == size;
+    }
+
+    /**
+     * Method to match the entries to merge with the values of the template element.
+     *
+     * <p>
+     *     Entries without a matching value are ignored. If several entries have the
+     *     same identifier, the first one is used.
+     * </p>
+     *
+     * @param entries the entries to merge
+     * @return the matching entry per value, {@code null} if there is none
+     */
+    NestedValue[] match(List<NestedValue> entries) {
+        NestedValue[] entryOfSlot = new NestedValue[slotByIdentifier.size()];
+        for (NestedValue entry: entries) {
+            Integer slot = entry.getIdentifier() == null ? null : slotByIdentifier.get(entry.getIdentifier());
+            if (slot != null && entryOfSlot[slot] == null) {
+                entryOfSlot[slot] = entry;
+            }
+        }
+
+        NestedValue[] matches = new NestedValue[slotOfValue.length];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = slotOfValue[i] < 0 ? null : entryOfSlot[slotOfValue[i]];
+        }
+        return matches;
+    }
+}
@@ -102,4 +102,30 @@ public abstract class SectionElement implements Patchable<SectionElement> {
      */
     public abstract void clearValue();
 
+    /**
+     * Method to create a copy of this SectionElement.
+     *
+     * <p>
+     *     The copy does not share any mutable state with this SectionElement,
+     *     so both can be patched independently.
+     * </p>
+     *
+     * @return a copy of this SectionElement
+     */
+    public abstract SectionElement copy();
+
+    /**
+     * Method to copy the attributes shared by all SectionElements.
+     *
+     * @param copy the copy to fill
+     * @return the filled copy
+     * @param <T> the type of the copy
+     */
+    protected <T extends SectionElement> T copyAttributesTo(T copy) {
+        copy.setRequired(required);
+        copy.setIdentifier(identifier);
+        copy.setUnique(unique);
+        return copy;
+    }
+
 }
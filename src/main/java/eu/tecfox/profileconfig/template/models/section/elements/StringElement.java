@@ -57,6 +57,14 @@ public class StringElement extends SectionElement implements NestedKey, NestedVa
         this.setValue(null);
     }
 
+    @Override
+    public StringElement copy() {
+        StringElement copy = copyAttributesTo(new StringElement());
+        copy.setKey(key);
+        copy.setValue(value);
+        return copy;
+    }
+
 
     @Override
     public void patch(SectionElement entityToMerge) {
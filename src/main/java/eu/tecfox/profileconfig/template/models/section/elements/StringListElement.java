@@ -16,6 +16,7 @@
 
 package eu.tecfox.profileconfig.template.models.section.elements;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -59,6 +60,14 @@ public class StringListElement extends SectionElement implements NestedValue  {
         this.value.clear();
     }
 
+    @Override
+    public StringListElement copy() {
+        StringListElement copy = copyAttributesTo(new StringListElement());
+        copy.setKey(key);
+        copy.setValue(value == null ? null : new ArrayList<>(value));
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == this) {
@@ -62,4 +62,20 @@ public class Style {
     private String secondaryColor;
 
     private boolean boldKeys;
+
+    /**
+     * Method to create a copy of this style.
+     *
+     * @return a new style with the same values
+     */
+    public Style copy() {
+        Style copy = new Style();
+        copy.setFontType(fontType);
+        copy.setFontSize(fontSize);
+        copy.setHeadingSize(headingSize);
+        copy.setPrimaryColor(primaryColor);
+        copy.setSecondaryColor(secondaryColor);
+        copy.setBoldKeys(boldKeys);
+        return copy;
+    }
 }
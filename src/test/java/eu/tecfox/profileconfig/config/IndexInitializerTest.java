@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import eu.tecfox.profileconfig.ProfileConfiguratorApplication;
+import eu.tecfox.profileconfig.profile.ProfileRepositoryCustomImpl;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gt;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lte;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {ProfileConfiguratorApplication.class})
+@TestPropertySource(properties = {"spring.cloud.discovery.enabled=false"})
+class IndexInitializerTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:4.4.2");
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mongoTemplate.dropCollection(Profile.class);
+        new IndexInitializer(mongoTemplate, Duration.ofDays(30)).initIndexes();
+        for (String userId: List.of("user1", "user2", "user3")) {
+            Profile profile = TestDataGenerator.generateValidProfile();
+            profile.setUserId(userId);
+            profile.setTemplateVersion(1L);
+            mongoTemplate.save(profile);
+        }
+    }
+
+    @Test
+    void Should_UseIndex_If_ProfileIsFoundByUserId() {
+        assertIndexUsed("profiles", eq("userId", "user1"), null);
+    }
+
+    @Test
+    void Should_UseIndex_If_ProfilesAreFoundByUserIds() {
+        assertIndexUsed("profiles", in("userId", "user1", "user3"), null);
+    }
+
+    @Test
+    void Should_UseIndex_If_OutdatedProfilesAreStreamed() {
+        assertIndexUsed(ProfileRepositoryCustomImpl.outdatedQuery(null, 2L, new ObjectId().toHexString()));
+    }
+
+    @Test
+    void Should_UseIndex_If_ProfileSummariesAreListed() {
+        assertIndexUsed(ProfileRepositoryCustomImpl.summariesQuery(new ObjectId().toHexString(), 50));
+    }
+
+    @Test
+    void Should_UseIndex_If_ProfilesAreFoundBySkill() {
+        assertIndexUsed(ProfileRepositoryCustomImpl.skillQuery("Java"));
+    }
+
+    @Test
+    void Should_UseIndex_If_ProfilesAreFoundByModificationDate() {
+        assertIndexUsed("profiles", gt("lastModifiedDate", LocalDateTime.now().minusDays(1)), null);
+    }
+
+    @Test
+    void Should_UseIndex_If_ChangesOfProfileAreFound() {
+        assertIndexUsed("profileChanges", and(eq("profileId", "profile"), gt("version", 1L)), ascending("version"));
+    }
+
+    @Test
+    void Should_UseIndex_If_RevisionsOfProfileAreFound() {
+        assertIndexUsed("profileRevisions", and(eq("profileId", "profile"), eq("depth", 0),
+            lte("createdDate", LocalDateTime.now())), descending("version"));
+    }
+
+    private void assertIndexUsed(Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(Profile.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        assertIndexUsed(mongoTemplate.getCollectionName(Profile.class),
+            queryMapper.getMappedObject(query.getQueryObject(), entity),
+            queryMapper.getMappedSort(query.getSortObject(), entity));
+    }
+
+    private void assertIndexUsed(String collection, Bson filter, Bson sort) {
+        Document explain = mongoTemplate.getCollection(collection).find(filter).sort(sort).explain();
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        assertFalse(winningPlan.toJson().contains("COLLSCAN"), winningPlan.toJson());
+    }
+}
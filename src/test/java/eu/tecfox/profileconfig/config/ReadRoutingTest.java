@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import eu.tecfox.profileconfig.ProfileConfiguratorApplication;
+import eu.tecfox.profileconfig.profile.ProfileRepository;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {ProfileConfiguratorApplication.class})
+@TestPropertySource(properties = {"spring.cloud.discovery.enabled=false",
+    "mongodb.read-routing.endpoints.profile-list=secondaryPreferred",
+    "mongodb.read-routing.endpoints.profile-search=nearest"})
+class ReadRoutingTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:4.4.2");
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    ReadRouting readRouting;
+
+    @Autowired
+    ProfileRepository profileRepository;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mongoTemplate.dropCollection(Profile.class);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("user1");
+        mongoTemplate.save(profile);
+    }
+
+    @Test
+    void Should_ReadFromPrimary_If_EndpointHasNoReadPreference() {
+        assertSame(mongoTemplate, readRouting.forEndpoint("unknown"));
+    }
+
+    @Test
+    void Should_ShareTemplate_If_EndpointsHaveSameReadPreference() {
+        assertNotSame(mongoTemplate, readRouting.forEndpoint(ReadRouting.PROFILE_LIST));
+        assertSame(readRouting.forEndpoint(ReadRouting.PROFILE_LIST),
+            readRouting.forEndpoint(ReadRouting.PROFILE_LIST));
+        assertNotSame(readRouting.forEndpoint(ReadRouting.PROFILE_LIST),
+            readRouting.forEndpoint(ReadRouting.PROFILE_SEARCH));
+    }
+
+    @Test
+    void Should_ListAndSearchProfiles_If_ReadFromSecondaries() {
+        List<ProfileSummary> summaries = profileRepository.streamSummaries(null, 10).toList();
+        List<Profile> profiles = profileRepository.findAllBySkill("Java");
+
+        assertEquals(List.of("user1"), summaries.stream().map(ProfileSummary::userId).toList());
+        assertEquals(1, profiles.size());
+        assertNotNull(profiles.get(0).getSections());
+    }
+
+    @Test
+    void Should_Fail_If_ReadPreferenceIsUnknown() {
+        ReadRoutingProperties properties = new ReadRoutingProperties(Map.of("list", "fastest"));
+
+        assertThrows(IllegalArgumentException.class, () -> new ReadRouting(mongoTemplate, null, properties));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.config;
+
+import java.io.IOException;
+
+import eu.tecfox.profileconfig.ProfileConfiguratorApplication;
+import eu.tecfox.profileconfig.profile.ProfileService;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.TemplateService;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {ProfileConfiguratorApplication.class})
+@TestPropertySource(properties = {"spring.cloud.discovery.enabled=false"})
+class VersionBackfillTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:4.4.2");
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    TemplateService templateService;
+
+    @Autowired
+    ProfileService profileService;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Test
+    void Should_UpdateTemplate_If_TemplateWasInsertedWithoutVersion() throws IOException {
+        Template legacy = TestDataGenerator.generateValidTemplate();
+        legacy.setKey("legacy");
+        insertWithoutVersion(legacy, "templates");
+        new VersionBackfill(mongoTemplate).backfillVersions();
+
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setKey("legacy");
+        template.setTitle("Changed");
+        Template saved = templateService.saveTemplate(template);
+
+        assertEquals(1L, saved.getVersion());
+        assertEquals("Changed", mongoTemplate.findById(saved.getId(), Template.class).getTitle());
+    }
+
+    @Test
+    void Should_UpdateProfile_If_ProfileWasInsertedWithoutVersion() throws IOException {
+        Profile legacy = TestDataGenerator.generateValidProfile();
+        legacy.setUserId("legacy");
+        insertWithoutVersion(legacy, "profiles");
+        new VersionBackfill(mongoTemplate).backfillVersions();
+
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("legacy");
+        ((StringElement) profile.getSections().get(0).getElements().get(0)).setValue("Changed");
+        Profile saved = profileService.save(profile);
+
+        assertEquals(1L, saved.getVersion());
+        assertEquals("Changed", ((StringElement) profileService.findByUserId("legacy").orElseThrow()
+            .getSections().get(0).getElements().get(0)).getValue());
+    }
+
+    private void insertWithoutVersion(Object entity, String collection) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        document.remove("version");
+        mongoTemplate.getCollection(collection).insertOne(document);
+    }
+}
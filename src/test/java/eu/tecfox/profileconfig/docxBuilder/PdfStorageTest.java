@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.docxBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import com.mongodb.client.result.UpdateResult;
+import eu.tecfox.profileconfig.docxBuilder.models.RenderedPdf;
+import eu.tecfox.profileconfig.exception.ApiRequestException;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PdfStorageTest {
+
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    GridFsTemplate gridFsTemplate = mock(GridFsTemplate.class);
+    AtomicInteger conversions = new AtomicInteger();
+    BiConsumer<InputStream, OutputStream> converter = (docx, pdf) -> conversions.incrementAndGet();
+    PdfStorage pdfStorage = new PdfStorage(mongoTemplate, gridFsTemplate, Duration.ofDays(7), converter);
+
+    @Test
+    void Should_RenderAndStorePdf_If_InputWasNotRenderedBefore() throws IOException {
+        ObjectId fileId = new ObjectId();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(null, 1));
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), eq(PdfStorage.CONTENT_TYPE))).thenReturn(fileId);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RenderedPdf.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.findById(anyString(), eq(RenderedPdf.class))).thenReturn(pdf(fileId, 1));
+
+        pdfStorage.store(docx());
+
+        assertEquals(1, conversions.get());
+        verify(gridFsTemplate, never()).delete(any());
+    }
+
+    @Test
+    void Should_ReferenceExistingPdf_If_InputWasRenderedBefore() throws IOException {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(new ObjectId(), 2));
+
+        RenderedPdf pdf = pdfStorage.store(docx());
+
+        assertEquals(2, pdf.getReferences());
+        assertEquals(0, conversions.get());
+        verify(gridFsTemplate, never()).store(any(InputStream.class), anyString(), anyString());
+    }
+
+    @Test
+    void Should_DiscardOwnFile_If_SameInputWasRenderedConcurrently() throws IOException {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(null, 2));
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), eq(PdfStorage.CONTENT_TYPE)))
+            .thenReturn(new ObjectId());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RenderedPdf.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.findById(anyString(), eq(RenderedPdf.class))).thenReturn(pdf(new ObjectId(), 2));
+
+        pdfStorage.store(docx());
+
+        verify(gridFsTemplate).delete(any(Query.class));
+    }
+
+    @Test
+    void Should_StorePdfAgain_If_PdfWasRemovedWhileRendering() throws IOException {
+        ObjectId fileId = new ObjectId();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(null, 1));
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), eq(PdfStorage.CONTENT_TYPE))).thenReturn(fileId);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RenderedPdf.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.findById(anyString(), eq(RenderedPdf.class))).thenReturn(null, pdf(fileId, 1));
+
+        RenderedPdf pdf = pdfStorage.store(docx());
+
+        assertEquals(fileId, pdf.getFileId());
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(RenderedPdf.class));
+        verify(gridFsTemplate, never()).delete(any());
+    }
+
+    @Test
+    void Should_ThrowException_If_PdfIsRemovedRepeatedlyWhileStoring() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(null, 1));
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), eq(PdfStorage.CONTENT_TYPE)))
+            .thenReturn(new ObjectId());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RenderedPdf.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(ApiRequestException.class, () -> pdfStorage.store(docx()));
+        verify(gridFsTemplate).delete(any(Query.class));
+    }
+
+    @Test
+    void Should_SetExpiry_If_LastReferenceIsReleased() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(RenderedPdf.class))).thenReturn(pdf(new ObjectId(), 0));
+
+        assertTrue(pdfStorage.release("hash"));
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(RenderedPdf.class));
+    }
+
+    @Test
+    void Should_RemoveGridFsFile_If_PdfExpired() {
+        RenderedPdf expired = pdf(new ObjectId(), 0);
+        expired.setExpiresAt(LocalDateTime.now().minusDays(1));
+        when(mongoTemplate.find(any(Query.class), eq(RenderedPdf.class))).thenReturn(List.of(expired));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(RenderedPdf.class))).thenReturn(expired);
+
+        pdfStorage.removeExpired();
+
+        verify(gridFsTemplate).delete(any(Query.class));
+    }
+
+    private static RenderedPdf pdf(ObjectId fileId, int references) {
+        RenderedPdf pdf = new RenderedPdf();
+        pdf.setId("hash");
+        pdf.setFileId(fileId);
+        pdf.setReferences(references);
+        return pdf;
+    }
+
+    private static InputStream docx() {
+        return new ByteArrayInputStream("docx".getBytes(StandardCharsets.UTF_8));
+    }
+}
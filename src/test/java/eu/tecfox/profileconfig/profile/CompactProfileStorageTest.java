@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.TemplateService;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompactProfileStorageTest {
+
+    TemplateService templateService = mock(TemplateService.class);
+    MappingMongoConverter converter = createConverter();
+
+    @Test
+    void Should_StoreOnlyValues_If_ModeIsCompact() throws IOException {
+        CompactProfileStorage storage = new CompactProfileStorage(templateService, ProfileStorageMode.COMPACT);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Document full = write(profile);
+        Document compact = write(profile);
+
+        storage.onBeforeSave(profile, compact, "profiles");
+
+        assertTrue(profile.isCompact());
+        assertEquals(true, compact.get("compact"));
+        assertNull(compact.get("style"));
+        assertNull(compact.get("title"));
+        Document element = (Document) ((List<?>) ((Document) ((List<?>) compact.get("sections")).get(0))
+            .get("elements")).get(0);
+        assertNull(element.get("key"));
+        assertNull(element.get("required"));
+        assertNotNull(element.get("identifier"));
+        assertTrue(compact.toJson().length() < full.toJson().length());
+    }
+
+    @Test
+    void Should_RestoreProfileFromTemplate_If_ProfileIsStoredCompact() throws IOException {
+        CompactProfileStorage storage = new CompactProfileStorage(templateService, ProfileStorageMode.COMPACT);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        Document document = write(profile);
+        storage.onBeforeSave(profile, document, "profiles");
+
+        Profile stored = converter.read(Profile.class, document);
+        Profile restored = storage.onAfterConvert(stored, document, "profiles");
+
+        assertEquals(template.getTitle(), restored.getTitle());
+        assertEquals(template.getStyle(), restored.getStyle());
+        assertEquals(ProfileContentHasher.hash(profile.mergedWith(template)), ProfileContentHasher.hash(restored));
+    }
+
+    @Test
+    void Should_RestoreProfileWithoutSections_If_SectionsNotProjected() throws IOException {
+        CompactProfileStorage storage = new CompactProfileStorage(templateService, ProfileStorageMode.COMPACT);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        Document document = write(profile);
+        storage.onBeforeSave(profile, document, "profiles");
+        document.remove("sections");
+
+        Profile stored = converter.read(Profile.class, document);
+        Profile restored = storage.onAfterConvert(stored, document, "profiles");
+
+        assertEquals(template.getTitle(), restored.getTitle());
+        assertNull(restored.getSections());
+    }
+
+    @Test
+    void Should_StoreWholeProfile_If_ModeIsFull() throws IOException {
+        CompactProfileStorage storage = new CompactProfileStorage(templateService, ProfileStorageMode.FULL);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Document document = write(profile);
+
+        storage.onBeforeSave(profile, document, "profiles");
+        Profile stored = converter.read(Profile.class, document);
+
+        assertFalse(stored.isCompact());
+        assertSame(stored, storage.onAfterConvert(stored, document, "profiles"));
+        assertEquals(ProfileContentHasher.hash(profile), ProfileContentHasher.hash(stored));
+    }
+
+    private static MappingMongoConverter createConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private Document write(Profile profile) {
+        Document document = new Document();
+        converter.write(profile, document);
+        return document;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileChange;
+import eu.tecfox.profileconfig.profile.models.ProfileDelta;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileChangeLogTest {
+
+    ProfileChangeRepository profileChangeRepository = mock(ProfileChangeRepository.class);
+    ProfileChangeLog profileChangeLog = new ProfileChangeLog(profileChangeRepository);
+
+    @Test
+    void Should_RecordOnlyChangedSections_If_ProfileChanged() throws IOException {
+        Profile previous = generateProfile(1L);
+        Profile current = generateProfile(2L);
+        Section changed = current.getSections().get(0).mergedWith(null);
+        changed.setTitle("Changed");
+        List<Section> sections = new ArrayList<>(current.getSections());
+        sections.set(0, changed);
+        sections.remove(1);
+        current.setSections(sections);
+
+        profileChangeLog.onProfileChanged(new ProfileChangedEvent(previous, current));
+
+        ArgumentCaptor<ProfileChange> captor = ArgumentCaptor.forClass(ProfileChange.class);
+        verify(profileChangeRepository).save(captor.capture());
+        ProfileChange change = captor.getValue();
+        assertEquals(1L, change.getFromVersion());
+        assertEquals(2L, change.getVersion());
+        assertEquals(List.of(changed), change.getChangedSections());
+        assertEquals(List.of(previous.getSections().get(1).getIdentifier()), change.getRemovedSections());
+    }
+
+    @Test
+    void Should_NotThrowException_If_ChangeCannotBeSaved() throws IOException {
+        when(profileChangeRepository.save(any())).thenThrow(new IllegalStateException());
+
+        assertDoesNotThrow(() -> profileChangeLog.onProfileChanged(
+            new ProfileChangedEvent(generateProfile(1L), generateProfile(2L))));
+    }
+
+    @Test
+    void Should_CombineChanges_If_ChangeLogCoversAllVersions() throws IOException {
+        Profile current = generateProfile(3L);
+        Section first = current.getSections().get(0);
+        Section second = current.getSections().get(1);
+        when(profileChangeRepository.findByProfileIdAndVersionGreaterThanOrderByVersionAsc("profileID", 1L))
+            .thenReturn(List.of(change(1L, 2L, List.of(first), List.of(second.getIdentifier())),
+                change(2L, 3L, List.of(second), List.of())));
+
+        ProfileDelta delta = profileChangeLog.changesSince(current, 1L);
+
+        assertFalse(delta.full());
+        assertEquals(3L, delta.version());
+        assertEquals(List.of(first, second), delta.sections());
+        assertTrue(delta.removedSections().isEmpty());
+    }
+
+    @Test
+    void Should_ReturnWholeProfile_If_ChangeLogHasGap() throws IOException {
+        Profile current = generateProfile(3L);
+        when(profileChangeRepository.findByProfileIdAndVersionGreaterThanOrderByVersionAsc("profileID", 1L))
+            .thenReturn(List.of(change(2L, 3L, List.of(current.getSections().get(0)), List.of())));
+
+        ProfileDelta delta = profileChangeLog.changesSince(current, 1L);
+
+        assertTrue(delta.full());
+        assertEquals(current.getSections(), delta.sections());
+    }
+
+    private static ProfileChange change(Long fromVersion, Long version, List<Section> changedSections,
+        List<String> removedSections) {
+        ProfileChange change = new ProfileChange();
+        change.setProfileId("profileID");
+        change.setFromVersion(fromVersion);
+        change.setVersion(version);
+        change.setChangedSections(changedSections);
+        change.setRemovedSections(removedSections);
+        return change;
+    }
+
+    private static Profile generateProfile(Long version) throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setId("profileID");
+        profile.setVersion(version);
+        return profile;
+    }
+}
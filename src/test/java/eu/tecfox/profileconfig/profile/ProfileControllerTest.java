@@ -16,12 +16,22 @@
 
 package eu.tecfox.profileconfig.profile;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileDelta;
+import eu.tecfox.profileconfig.profile.models.ProfileImportReport;
+import eu.tecfox.profileconfig.profile.models.ProfileSummary;
 import eu.tecfox.profileconfig.template.TemplateService;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
 import eu.tecfox.profileconfig.testdata.TestDataGenerator;
 
 import org.junit.jupiter.api.Test;
@@ -29,6 +39,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,27 +48,48 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(ProfileController.class)
+@Import(ProfileWriteBuffer.class)
 @TestPropertySource(properties = {"spring.cloud.discovery.enabled=false"})
 class ProfileControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private ProfileWriteBuffer profileWriteBuffer;
+
     @MockBean
     ProfileService profileService;
 
     @MockBean
     TemplateService templateService;
 
+    @MockBean
+    ProfileChangeLog profileChangeLog;
+
+    @MockBean
+    ProfileImporter profileImporter;
+
+    @MockBean
+    ProfileRevisionHistory profileRevisionHistory;
+
     ObjectMapper mapper = new ObjectMapper();
 
     @Test
@@ -118,7 +151,128 @@ class ProfileControllerTest {
         assertEquals("New Title", resultProfile.getTitle());
     }
 
+    @Test
+    void Should_ReturnUpdatedSection_If_SectionPatched() throws Exception {
+        Section section = TestDataGenerator.generateValidProfile().getSections().get(0);
+        when(profileService.updateSection(eq(""), any(Section.class))).thenReturn(section);
+        this.mvc.perform(patch("/api/profile/sections/" + section.getIdentifier())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(section)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.identifier").value(section.getIdentifier()));
+    }
+
+    @Test
+    void Should_ReturnChanges_If_ClientSendsKnownVersion() throws Exception {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setVersion(4L);
+        Section section = profile.getSections().get(0);
+        when(profileService.findByUserId(any())).thenReturn(Optional.of(profile));
+        when(profileChangeLog.changesSince(profile, 3L))
+            .thenReturn(new ProfileDelta(4L, null, false, List.of(section), List.of()));
+        this.mvc.perform(get("/api/profile/changes").param("since", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(4))
+            .andExpect(jsonPath("$.full").value(false))
+            .andExpect(jsonPath("$.sections[0].identifier").value(section.getIdentifier()));
+    }
+
+    @Test
+    void Should_ReturnProjectedProfile_If_SectionsAreRequested() throws Exception {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        when(profileService.findByUserId("abcd", null, Set.of("section1", "section2")))
+            .thenReturn(Optional.of(profile));
+        this.mvc.perform(get("/api/profile/abcd").param("sections", "section1,section2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"));
+    }
+
+    @Test
+    void Should_StreamProfileSummariesAsNdjson_If_ProfilesAreListed() throws Exception {
+        when(profileService.streamSummaries("profile1", 2)).thenReturn(Stream.of(
+            new ProfileSummary("profile2", "user2", null, 1L, 3L, null),
+            new ProfileSummary("profile3", "user3", null, 4L, 3L, null)));
+        MvcResult result = this.mvc.perform(get("/api/profile/list").param("after", "profile1").param("limit", "2"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = this.mvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("profile2", mapper.readTree(lines[0]).get("id").asText());
+        assertEquals("profile3", mapper.readTree(lines[1]).get("id").asText());
+        assertTrue(body.endsWith("\n"));
+    }
 
+    @Test
+    void Should_ReturnBadRequest_If_PageIsRejected() throws Exception {
+        when(profileService.streamSummaries(null, 0))
+            .thenThrow(new ApiRequestException("The limit has to be between 1 and 10000."));
+        this.mvc.perform(get("/api/profile/list").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
 
+    @Test
+    void Should_ReturnImportReport_If_ProfilesAreImported() throws Exception {
+        when(profileImporter.importProfiles(any())).thenReturn(new ProfileImportReport(1,
+            List.of(new ProfileImportReport.RecordError(1, "user2", "User already has a profile."))));
+        this.mvc.perform(post("/api/profile/import").contentType(MediaType.APPLICATION_NDJSON).content("{}\n{}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.errors[0].index").value(1))
+            .andExpect(jsonPath("$.errors[0].userId").value("user2"));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void Should_ReturnProfiles_If_ProfilesAreRequestedTogether() throws Exception {
+        Profile second = TestDataGenerator.generateValidProfile();
+        second.setTitle("Second");
+        when(profileService.findAllByUserIds(List.of("user2", "user1"), Set.of("title"), null))
+            .thenReturn(Map.of("user2", second));
+        this.mvc.perform(post("/api/profile/batch").param("fields", "title")
+                .contentType(MediaType.APPLICATION_JSON).content("[\"user2\", \"user1\"]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.user2.title").value("Second"))
+            .andExpect(jsonPath("$.user1").doesNotExist());
+    }
+
+    @Test
+    void Should_FlushBufferedProfileOnce_If_IdsAreRepeated() throws Exception {
+        Profile buffered = TestDataGenerator.generateValidProfile();
+        buffered.setUserId("user2");
+        profileWriteBuffer.buffer(buffered);
+        List<String> ids = List.of("user2", "user1", "user2");
+        when(profileService.findAllByUserIds(ids, null, null)).thenReturn(Map.of());
+        this.mvc.perform(post("/api/profile/batch")
+                .contentType(MediaType.APPLICATION_JSON).content("[\"user2\", \"user1\", \"user2\"]"))
+            .andExpect(status().isOk());
+        verify(profileService, times(1)).save(buffered);
+        verify(profileService).findAllByUserIds(ids, null, null);
+    }
+
+    @Test
+    void Should_ReturnBadRequest_If_BatchIsRejected() throws Exception {
+        when(profileService.findAllByUserIds(any(), any(), any()))
+            .thenThrow(new ApiRequestException("The ids of the users must not be blank."));
+        this.mvc.perform(post("/api/profile/batch")
+                .contentType(MediaType.APPLICATION_JSON).content("[\"user1\", null]"))
+            .andExpect(status().isBadRequest());
+        verify(profileService, never()).save(any());
+    }
+
+    @Test
+    void Should_ReturnProfileAsOfDate_If_RevisionExists() throws Exception {
+        Profile current = TestDataGenerator.generateValidProfile();
+        current.setId("profileID");
+        Profile revision = TestDataGenerator.generateValidProfile();
+        revision.setTitle("Revision");
+        when(profileService.findByUserId("abcd")).thenReturn(Optional.of(current));
+        when(profileRevisionHistory.asOf("profileID", LocalDateTime.of(2026, 1, 1, 12, 0)))
+            .thenReturn(Optional.of(revision));
+        this.mvc.perform(get("/api/profile/abcd/history").param("at", "2026-01-01T12:00:00"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value("Revision"));
+    }
+}
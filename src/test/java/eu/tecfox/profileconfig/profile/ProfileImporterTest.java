@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileImport;
+import eu.tecfox.profileconfig.profile.models.ProfileImportReport;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileImporterTest {
+
+    ProfileRepository profileRepository = mock(ProfileRepository.class);
+    Validator validator = mock(Validator.class);
+    ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    ProfileImporter profileImporter = new ProfileImporter(profileRepository, validator, eventPublisher, mapper, 2);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ConstraintViolation<Profile> violation = mock(ConstraintViolation.class);
+        when(violation.getMessage()).thenReturn("Profile does not match the template.");
+        when(validator.validate(any(Profile.class), any())).thenAnswer(invocation ->
+            "invalid".equals(invocation.<Profile>getArgument(0).getTitle()) ? Set.of(violation) : Set.of());
+        when(profileRepository.insertAll(anyList())).thenReturn(Map.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void Should_ImportValidRecordsAndReportOthers_If_NdjsonIsImported() throws IOException {
+        String input = String.join("\n",
+            record("user1", "valid"),
+            record("user2", "invalid"),
+            record(null, "valid"),
+            record("user1", "valid"),
+            record("user3", "valid"));
+
+        ProfileImportReport report = profileImporter.importProfiles(stream(input));
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(1, 2, 3), report.errors().stream().map(ProfileImportReport.RecordError::index).toList());
+        assertEquals("Profile does not match the template.", report.errors().get(0).message());
+        ArgumentCaptor<List<Profile>> captor = ArgumentCaptor.forClass(List.class);
+        verify(profileRepository, times(3)).insertAll(captor.capture());
+        Profile imported = captor.getAllValues().get(0).get(0);
+        assertEquals("user1", imported.getUserId());
+        assertNotNull(imported.getId());
+        assertNotNull(imported.getContentHash());
+        verify(eventPublisher, times(2)).publishEvent(any(ProfileChangedEvent.class));
+    }
+
+    @Test
+    void Should_ReportFailedInserts_If_JsonArrayIsImported() throws IOException {
+        when(profileRepository.insertAll(anyList())).thenReturn(Map.of(1, "User already has a profile."));
+        String input = "[" + record("user1", "valid") + "," + record("user2", "valid") + "]";
+
+        ProfileImportReport report = profileImporter.importProfiles(stream(input));
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.errors().size());
+        assertEquals(1, report.errors().get(0).index());
+        assertEquals("user2", report.errors().get(0).userId());
+    }
+
+    @Test
+    void Should_KeepPreviousRecords_If_RecordCannotBeRead() throws IOException {
+        String input = record("user1", "valid") + "\n{\"userId\": ]\n" + record("user2", "valid");
+
+        ProfileImportReport report = profileImporter.importProfiles(stream(input));
+
+        assertEquals(1, report.imported());
+        assertEquals(1, report.errors().size());
+        assertEquals(1, report.errors().get(0).index());
+    }
+
+    private String record(String userId, String title) throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setTitle(title);
+        return mapper.writeValueAsString(new ProfileImport(userId, profile));
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileMigration;
+import eu.tecfox.profileconfig.profile.models.ProfileValidator;
+import eu.tecfox.profileconfig.template.TemplateService;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileMigrationJobTest {
+
+    ProfileRepository profileRepository = mock(ProfileRepository.class);
+    ProfileMigrationRepository profileMigrationRepository = mock(ProfileMigrationRepository.class);
+    TemplateService templateService = mock(TemplateService.class);
+    ProfileMigrationJob profileMigrationJob = new ProfileMigrationJob(profileRepository, profileMigrationRepository,
+        new ProfileServiceImpl(profileRepository, templateService, new ProfileValidator(),
+            mock(ApplicationEventPublisher.class)),
+        templateService);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void Should_MergeAllOutdatedProfilesInBatches() throws IOException {
+        Template template = generateTemplate(3L);
+        int profileCount = ProfileMigrationJob.BATCH_SIZE + 1;
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        when(profileMigrationRepository.findById("templateId:3")).thenReturn(Optional.empty());
+        when(profileRepository.streamOutdated(null, 3L, null)).thenReturn(generateProfiles(profileCount));
+        when(profileRepository.replaceAllVersioned(anyList())).thenAnswer(invocation ->
+            ((List<Profile>) invocation.getArgument(0)).size());
+
+        profileMigrationJob.migrate(template);
+
+        ArgumentCaptor<List<Profile>> batches = ArgumentCaptor.forClass(List.class);
+        verify(profileRepository, times(2)).replaceAllVersioned(batches.capture());
+        assertEquals(ProfileMigrationJob.BATCH_SIZE, batches.getAllValues().get(0).size());
+        Profile mergedProfile = batches.getAllValues().get(1).get(0);
+        assertEquals(3L, mergedProfile.getTemplateVersion());
+        assertEquals("Max Mustermann", ((StringElement) mergedProfile.getSections().get(0).getElements().get(0)).getValue());
+
+        ArgumentCaptor<ProfileMigration> migration = ArgumentCaptor.forClass(ProfileMigration.class);
+        verify(profileMigrationRepository, times(3)).save(migration.capture());
+        assertTrue(migration.getValue().isCompleted());
+        assertEquals(profileCount, migration.getValue().getProcessed());
+        assertEquals("profile" + (profileCount - 1), migration.getValue().getLastProfileId());
+    }
+
+    @Test
+    void Should_ResumeAfterCheckpoint() throws IOException {
+        Template template = generateTemplate(3L);
+        ProfileMigration migration = new ProfileMigration(template);
+        migration.checkpoint("profile9", 10, 0);
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        when(profileMigrationRepository.findById("templateId:3")).thenReturn(Optional.of(migration));
+        when(profileRepository.streamOutdated(null, 3L, "profile9")).thenReturn(Stream.empty());
+
+        profileMigrationJob.migrate(template);
+
+        verify(profileRepository).streamOutdated(null, 3L, "profile9");
+        assertTrue(migration.isCompleted());
+        assertEquals(10, migration.getProcessed());
+    }
+
+    @Test
+    void Should_MergeSkippedProfilesAgain_If_ProfilesChangedWhileMerged() throws IOException {
+        Template template = generateTemplate(3L);
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        when(profileMigrationRepository.findById("templateId:3")).thenReturn(Optional.empty());
+        when(profileRepository.streamOutdated(null, 3L, null))
+            .thenReturn(generateProfiles(2))
+            .thenReturn(generateProfiles(1));
+        when(profileRepository.replaceAllVersioned(anyList())).thenReturn(1);
+
+        profileMigrationJob.migrate(template);
+
+        verify(profileRepository, times(2)).streamOutdated(null, 3L, null);
+        ArgumentCaptor<ProfileMigration> migration = ArgumentCaptor.forClass(ProfileMigration.class);
+        verify(profileMigrationRepository, times(4)).save(migration.capture());
+        assertTrue(migration.getValue().isCompleted());
+        assertEquals(1, migration.getValue().getFailed());
+    }
+
+    @Test
+    void Should_NotCompleteMigration_If_ProfilesCannotBeMerged() throws IOException {
+        Template template = generateTemplate(3L);
+        ProfileMigration migration = new ProfileMigration(template);
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        when(profileMigrationRepository.findById("templateId:3")).thenReturn(Optional.of(migration));
+        when(profileRepository.streamOutdated(null, 3L, null))
+            .thenAnswer(invocation -> generateProfiles(1));
+        when(profileRepository.replaceAllVersioned(anyList())).thenReturn(0);
+
+        profileMigrationJob.migrate(template);
+
+        verify(profileRepository, times(ProfileMigrationJob.MAX_PASSES)).streamOutdated(null, 3L, null);
+        assertFalse(migration.isCompleted());
+        assertNull(migration.getLastProfileId());
+    }
+
+    @Test
+    void Should_StopMigration_If_NewerTemplateExists() throws IOException {
+        Template template = generateTemplate(3L);
+        when(templateService.getTemplate()).thenReturn(Optional.of(generateTemplate(4L)));
+        when(profileMigrationRepository.findById("templateId:3")).thenReturn(Optional.empty());
+        when(profileRepository.streamOutdated(null, 3L, null)).thenReturn(generateProfiles(1));
+
+        profileMigrationJob.migrate(template);
+
+        verify(profileRepository, never()).replaceAllVersioned(anyList());
+        verify(profileMigrationRepository, never()).save(any());
+    }
+
+    private Template generateTemplate(Long version) throws IOException {
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setId("templateId");
+        template.setVersion(version);
+        return template;
+    }
+
+    private Stream<Profile> generateProfiles(int count) throws IOException {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Profile profile = TestDataGenerator.generateValidProfile();
+            profile.setId("profile" + i);
+            profiles.add(profile);
+        }
+        return profiles.stream();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileRevision;
+import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileRevisionHistoryTest {
+
+    ProfileRevisionRepository profileRevisionRepository = mock(ProfileRevisionRepository.class);
+    ProfileRevisionHistory profileRevisionHistory = new ProfileRevisionHistory(profileRevisionRepository, 3);
+
+    @Test
+    void Should_StoreSnapshot_If_ProfileHasNoRevision() throws IOException {
+        Profile previous = generateProfile(1L);
+        Profile current = generateProfile(2L);
+        when(profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc("profileID")).thenReturn(Optional.empty());
+
+        ProfileRevision revision = record(previous, current);
+
+        assertTrue(revision.isSnapshot());
+        assertEquals(0, revision.getDepth());
+    }
+
+    @Test
+    void Should_StoreChangedElementsOnly_If_ValuesChanged() throws IOException {
+        Profile previous = generateProfile(1L);
+        Profile current = generateProfile(2L);
+        changeName(current, "Erika Mustermann");
+        when(profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc("profileID"))
+            .thenReturn(Optional.of(ProfileRevision.snapshot(null, previous)));
+
+        ProfileRevision revision = record(previous, current);
+
+        assertFalse(revision.isSnapshot());
+        assertEquals(1, revision.getDepth());
+        assertEquals(1, revision.getElements().size());
+        assertEquals("Erika Mustermann", revision.getElements().get(0).element().getValue());
+        // the elements of the last section share an identifier, so it is always stored whole
+        assertEquals(List.of(current.getSections().get(2)), revision.getSections());
+    }
+
+    @Test
+    void Should_StoreSnapshot_If_SnapshotIntervalIsReached() throws IOException {
+        Profile previous = generateProfile(3L);
+        Profile current = generateProfile(4L);
+        ProfileRevision latest = ProfileRevision.diff(generateProfile(2L), previous, 2, List.of(), List.of());
+        when(profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc("profileID"))
+            .thenReturn(Optional.of(latest));
+
+        assertTrue(record(previous, current).isSnapshot());
+    }
+
+    @Test
+    void Should_RestoreProfile_If_DiffsFollowSnapshot() throws IOException {
+        Profile first = generateProfile(1L);
+        Profile second = generateProfile(2L);
+        changeName(second, "Erika Mustermann");
+        ProfileRevision snapshot = ProfileRevision.snapshot(null, first);
+        when(profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc("profileID"))
+            .thenReturn(Optional.of(snapshot));
+        ProfileRevision diff = record(generateProfile(1L), second);
+        LocalDateTime date = LocalDateTime.now();
+        when(profileRevisionRepository.findFirstByProfileIdAndDepthAndCreatedDateLessThanEqualOrderByVersionDesc(
+            "profileID", 0, date)).thenReturn(Optional.of(snapshot));
+        when(profileRevisionRepository.findByProfileIdAndVersionGreaterThanAndCreatedDateLessThanEqualOrderByVersionAsc(
+            "profileID", 1L, date)).thenReturn(List.of(diff));
+
+        Profile restored = profileRevisionHistory.asOf("profileID", date).orElseThrow();
+
+        assertEquals(2L, restored.getVersion());
+        assertEquals("Erika Mustermann", restored.getSections().get(0).getElements().get(0).getValue());
+        assertEquals(ProfileContentHasher.hash(second), ProfileContentHasher.hash(restored));
+    }
+
+    @Test
+    void Should_ReturnEmpty_If_ProfileHadNoRevisionAtDate() {
+        when(profileRevisionRepository.findFirstByProfileIdAndDepthAndCreatedDateLessThanEqualOrderByVersionDesc(
+            eq("profileID"), eq(0), any())).thenReturn(Optional.empty());
+
+        assertTrue(profileRevisionHistory.asOf("profileID", LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void Should_NotThrowException_If_RevisionCannotBeSaved() throws IOException {
+        when(profileRevisionRepository.findFirstByProfileIdOrderByVersionDesc("profileID"))
+            .thenThrow(new IllegalStateException());
+
+        assertDoesNotThrow(() -> profileRevisionHistory.onProfileChanged(
+            new ProfileChangedEvent(generateProfile(1L), generateProfile(2L))));
+    }
+
+    private ProfileRevision record(Profile previous, Profile current) {
+        profileRevisionHistory.onProfileChanged(new ProfileChangedEvent(previous, current));
+        ArgumentCaptor<ProfileRevision> captor = ArgumentCaptor.forClass(ProfileRevision.class);
+        verify(profileRevisionRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void changeName(Profile profile, String name) {
+        ((StringElement) profile.getSections().get(0).getElements().get(0)).setValue(name);
+    }
+
+    private static Profile generateProfile(Long version) throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setId("profileID");
+        profile.setVersion(version);
+        return profile;
+    }
+}
@@ -18,31 +18,49 @@ package eu.tecfox.profileconfig.profile;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
+import eu.tecfox.profileconfig.exception.ApiRequestException;
 import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileValidator;
 import eu.tecfox.profileconfig.template.TemplateRepository;
 import eu.tecfox.profileconfig.template.TemplateService;
 import eu.tecfox.profileconfig.template.TemplateServiceImpl;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.section.Section;
+import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
 import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
 import eu.tecfox.profileconfig.testdata.TestDataGenerator;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = { ProfileRepository.class, ProfileServiceImpl.class, TemplateServiceImpl.class,
-    TemplateRepository.class})
+@ContextConfiguration(classes = { ProfileRepository.class, ProfileServiceImpl.class, ProfileValidator.class,
+    TemplateServiceImpl.class, TemplateRepository.class})
 @TestPropertySource(properties = {"spring.main.allow-bean-definition-overriding=true",
     "spring.cloud.discovery.enabled=false"})
 class ProfileServiceImplTest {
@@ -57,6 +75,8 @@ class ProfileServiceImplTest {
     @InjectMocks
     ProfileServiceImpl profileService;
 
+    ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
 
     @Test
     void Should_ReturnProfile_If_NoTemplateFoundForMerge() throws IOException {
@@ -104,5 +124,345 @@ class ProfileServiceImplTest {
         assertEquals(1, patchedProfile.getSections().get(2).getElements().size());
     }
 
+    @Test
+    void Should_NotModifyTemplate_When_MergingWithTemplate() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        Profile patchedProfile = profileService.mergeWithTemplate(profile, template);
+        assertNotSame(template.getSections().get(0), patchedProfile.getSections().get(0));
+        assertEquals("", ((StringElement)template.getSections().get(0).getElements().get(0)).getValue());
+        assertEquals(((StringElement)profile.getSections().get(0).getElements().get(0)).getValue(),
+            ((StringElement)patchedProfile.getSections().get(0).getElements().get(0)).getValue());
+    }
+
+    @Test
+    void Should_SkipMerge_If_ProfileIsMergedWithCurrentTemplateVersion() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setTemplateVersion(2L);
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(2L);
+        when(service.getTemplate()).thenReturn(Optional.of(template));
+        Profile mergedProfile = createProfileService(repository, service).mergeWithTemplate(profile);
+        assertSame(profile, mergedProfile);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void Should_PersistMergedProfile_If_TemplateVersionChanged() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setId("profileID");
+        profile.setTemplateVersion(1L);
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(2L);
+        when(service.getTemplate()).thenReturn(Optional.of(template));
+        Profile mergedProfile = createProfileService(repository, service).mergeWithTemplate(profile);
+        assertEquals(2L, mergedProfile.getTemplateVersion());
+        ArgumentCaptor<List<Profile>> persisted = ArgumentCaptor.forClass(List.class);
+        verify(repository).replaceAllVersioned(persisted.capture());
+        assertSame(mergedProfile, persisted.getValue().get(0));
+    }
+
+    @Test
+    void Should_UpdateStoredProfile_If_UserHasProfile() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setVersion(4L);
+        stored.setUserId("userid");
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(repository.save(profile)).thenReturn(profile);
+        Profile saved = createProfileService(repository, mock(TemplateService.class)).save(profile);
+        assertEquals("profileID", saved.getId());
+        assertEquals(4L, saved.getVersion());
+    }
+
+    @Test
+    void Should_RetrySave_If_ProfileWasModifiedConcurrently() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setVersion(4L);
+        stored.setUserId("userid");
+        Profile remerged = TestDataGenerator.generateValidProfile();
+        remerged.setId("profileID");
+        remerged.setVersion(5L);
+        remerged.setUserId("userid");
+        remerged.setTemplateVersion(2L);
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(2L);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        when(service.getTemplate()).thenReturn(Optional.of(template));
+        when(repository.findByUserId("userid"))
+            .thenReturn(Optional.of(stored))
+            .thenReturn(Optional.of(remerged));
+        when(repository.save(any(Profile.class)))
+            .thenThrow(new OptimisticLockingFailureException("conflict"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Profile saved = createProfileService(repository, service).save(profile);
+
+        verify(repository, times(2)).save(any(Profile.class));
+        assertEquals(5L, saved.getVersion());
+        assertEquals(2L, saved.getTemplateVersion());
+        assertEquals(((StringElement)profile.getSections().get(0).getElements().get(0)).getValue(),
+            ((StringElement)saved.getSections().get(0).getElements().get(0)).getValue());
+    }
+
+    @Test
+    void Should_RetrySave_If_FirstProfileWasInsertedConcurrently() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile inserted = TestDataGenerator.generateValidProfile();
+        inserted.setId("profileID");
+        inserted.setVersion(0L);
+        inserted.setUserId("userid");
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        ((StringElement)profile.getSections().get(0).getElements().get(0)).setValue("changed");
+        when(repository.findByUserId("userid"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(inserted));
+        when(repository.save(any(Profile.class)))
+            .thenThrow(new DuplicateKeyException("duplicate"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Profile saved = createProfileService(repository, mock(TemplateService.class)).save(profile);
+
+        verify(repository, times(2)).save(any(Profile.class));
+        assertEquals("profileID", saved.getId());
+        assertEquals(0L, saved.getVersion());
+        assertEquals("changed", ((StringElement)saved.getSections().get(0).getElements().get(0)).getValue());
+    }
+
+    @Test
+    void Should_ThrowException_If_SaveConflictsOnEveryAttempt() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        when(repository.findByUserId("userid")).thenReturn(Optional.empty());
+        when(repository.save(any(Profile.class))).thenThrow(new OptimisticLockingFailureException("conflict"));
+        ProfileServiceImpl service = createProfileService(repository, mock(TemplateService.class));
+        assertThrows(OptimisticLockingFailureException.class, () -> service.save(profile));
+        verify(repository, times(ProfileServiceImpl.MAX_SAVE_ATTEMPTS)).save(any(Profile.class));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void Should_SkipSave_If_ContentDidNotChange() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setUserId("userid");
+        stored.setContentHash(ProfileContentHasher.hash(stored));
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        Profile saved = createProfileService(repository, mock(TemplateService.class)).save(profile);
+        assertSame(stored, saved);
+        verify(repository, never()).save(any(Profile.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void Should_SaveProfile_If_OnlyStyleChanged() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setUserId("userid");
+        stored.setContentHash(ProfileContentHasher.hash(stored));
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        profile.getStyle().setPrimaryColor("#123456");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(repository.save(profile)).thenReturn(profile);
+        createProfileService(repository, mock(TemplateService.class)).save(profile);
+        verify(repository).save(profile);
+        verify(eventPublisher).publishEvent(new ProfileChangedEvent(stored, profile));
+    }
+
+    @Test
+    void Should_PublishProfileChangedEvent_If_ContentChanged() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setUserId("userid");
+        stored.setContentHash(ProfileContentHasher.hash(stored));
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId("userid");
+        ((StringElement)profile.getSections().get(0).getElements().get(0)).setValue("changed");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(repository.save(profile)).thenReturn(profile);
+        createProfileService(repository, mock(TemplateService.class)).save(profile);
+        assertNotEquals(stored.getContentHash(), profile.getContentHash());
+        verify(eventPublisher).publishEvent(new ProfileChangedEvent(stored, profile));
+    }
+
+    @Test
+    void Should_UpdateOnlyElement_If_ElementIsValid() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile stored = generateStoredProfile();
+        Section section = stored.getSections().get(0);
+        StringElement element = (StringElement) section.getElements().get(0).copy();
+        element.setValue("Erika Musterfrau");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(service.getTemplate()).thenReturn(Optional.of(TestDataGenerator.generateValidTemplate()));
+        when(repository.replaceElement(stored, section.getIdentifier(), element)).thenReturn(Optional.of(stored));
+
+        Section updated = createProfileService(repository, service).updateElement("userid", section.getIdentifier(),
+            element);
+
+        assertSame(element, updated.getElements().get(0));
+        verify(repository).replaceElement(stored, section.getIdentifier(), element);
+        verify(repository, never()).save(any(Profile.class));
+        verify(eventPublisher).publishEvent(new ProfileChangedEvent(stored, stored));
+    }
+
+    @Test
+    void Should_RejectElement_If_ElementHasNoValue() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile stored = generateStoredProfile();
+        Section section = stored.getSections().get(0);
+        StringElement element = (StringElement) section.getElements().get(0).copy();
+        element.setValue(" ");
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(service.getTemplate()).thenReturn(Optional.of(TestDataGenerator.generateValidTemplate()));
+        ProfileServiceImpl profileService = createProfileService(repository, service);
+
+        assertThrows(ApiRequestException.class, () -> profileService.updateElement("userid",
+            section.getIdentifier(), element));
+        verify(repository, never()).replaceElement(any(), any(), any());
+    }
+
+    @Test
+    void Should_InsertEntryAfterLastEntry_If_ElementIsNotUnique() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        TemplateService service = mock(TemplateService.class);
+        Profile stored = generateStoredProfile();
+        Section section = stored.getSections().get(2);
+        SectionElement element = section.getElements().get(0).copy();
+        when(repository.findByUserId("userid")).thenReturn(Optional.of(stored));
+        when(service.getTemplate()).thenReturn(Optional.of(TestDataGenerator.generateValidTemplate()));
+        when(repository.insertElement(stored, section.getIdentifier(), element, 2)).thenReturn(Optional.of(stored));
+
+        Section updated = createProfileService(repository, service).addElement("userid", section.getIdentifier(),
+            element);
+
+        assertEquals(3, updated.getElements().size());
+        assertEquals(2, section.getElements().size());
+        verify(repository).insertElement(stored, section.getIdentifier(), element, 2);
+    }
+
+    @Test
+    void Should_RemoveSectionsNotRequested_If_ProfileIsProjected() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile stored = generateStoredProfile();
+        String identifier = stored.getSections().get(1).getIdentifier();
+        when(repository.findByUserId("userid", Set.of("sections"), Set.of(identifier)))
+            .thenReturn(Optional.of(stored));
+
+        Profile profile = createProfileService(repository, mock(TemplateService.class))
+            .findByUserId("userid", Set.of("sections"), Set.of(identifier)).orElseThrow();
+
+        assertEquals(1, profile.getSections().size());
+        assertEquals(identifier, profile.getSections().get(0).getIdentifier());
+        assertNull(profile.getTitle());
+        assertNull(profile.getStyle());
+    }
+
+    @Test
+    void Should_RejectProjection_If_FieldIsUnknown() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+
+        assertThrows(ApiRequestException.class, () -> profileService.findByUserId("userid", Set.of("userId"), null));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void Should_RejectPage_If_LimitIsTooLarge() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+
+        assertThrows(ApiRequestException.class,
+            () -> profileService.streamSummaries(null, ProfileServiceImpl.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void Should_RejectPage_If_LimitIsNotPositive() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+
+        assertThrows(ApiRequestException.class, () -> profileService.streamSummaries(null, 0));
+        assertThrows(ApiRequestException.class, () -> profileService.streamSummaries(null, -1));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void Should_RejectPage_If_AfterIdIsNotObjectId() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+
+        assertThrows(ApiRequestException.class, () -> profileService.streamSummaries("profile1", 10));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void Should_ReturnProfilesInRequestOrder_If_ProfilesAreRequestedTogether() throws IOException {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        Profile first = generateStoredProfile();
+        first.setUserId("user1");
+        Profile second = generateStoredProfile();
+        second.setUserId("user2");
+        when(repository.findAllByUserIds(List.of("user2", "missing", "user1"), null, null))
+            .thenReturn(List.of(first, second));
+
+        Map<String, Profile> profiles = createProfileService(repository, mock(TemplateService.class))
+            .findAllByUserIds(List.of("user2", "missing", "user1", "user2"), null, null);
+
+        assertEquals(List.of("user2", "user1"), List.copyOf(profiles.keySet()));
+        assertEquals(List.of(second, first), List.copyOf(profiles.values()));
+    }
+
+    @Test
+    void Should_RejectBatch_If_TooManyProfilesAreRequested() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+        List<String> ids = IntStream.rangeClosed(0, ProfileServiceImpl.MAX_BATCH_SIZE)
+            .mapToObj(String::valueOf)
+            .toList();
+
+        assertThrows(ApiRequestException.class, () -> profileService.findAllByUserIds(ids, null, null));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void Should_RejectBatch_If_IdIsBlank() {
+        ProfileRepository repository = mock(ProfileRepository.class);
+        ProfileServiceImpl profileService = createProfileService(repository, mock(TemplateService.class));
+
+        assertThrows(ApiRequestException.class, () -> profileService.findAllByUserIds(List.of("user1", " "), null, null));
+        verifyNoInteractions(repository);
+    }
+
+    private static Profile generateStoredProfile() throws IOException {
+        Profile stored = TestDataGenerator.generateValidProfile();
+        stored.setId("profileID");
+        stored.setVersion(1L);
+        stored.setUserId("userid");
+        return stored;
+    }
+
+    private ProfileServiceImpl createProfileService(ProfileRepository repository, TemplateService service) {
+        return new ProfileServiceImpl(repository, service, new ProfileValidator(), eventPublisher);
+    }
+}
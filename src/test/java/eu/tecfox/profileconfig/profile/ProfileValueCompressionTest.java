@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.util.List;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileValueCompressionTest {
+
+    private static final String LARGE_VALUE = "Entwicklung und Wartung von Microservices mit Spring Boot. ".repeat(50);
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ProfileValueCompression compression = new ProfileValueCompression(meterRegistry, 1024);
+    MappingMongoConverter converter = createConverter();
+
+    @Test
+    void Should_CompressOnlyLargeValues_If_ProfileIsSaved() throws IOException {
+        Profile profile = generateProfileWithLargeValue();
+        Document document = write(profile);
+
+        compression.onBeforeSave(profile, document, "profiles");
+
+        assertInstanceOf(Binary.class, element(document, 0, 0).get("value"));
+        assertEquals(ProfileValueCompression.SUBTYPE, ((Binary) element(document, 0, 0).get("value")).getType());
+        assertEquals(List.of("Deutsch", "Englisch"), element(document, 0, 1).get("value"));
+        assertEquals(LARGE_VALUE.length(), meterRegistry.get("profile.compression.original").counter().count());
+        assertTrue(meterRegistry.get("profile.compression.ratio").summary().max() < 0.5);
+    }
+
+    @Test
+    void Should_RestoreValues_If_CompressedProfileIsLoaded() throws IOException {
+        Profile profile = generateProfileWithLargeValue();
+        Document document = write(profile);
+        compression.onBeforeSave(profile, document, "profiles");
+
+        compression.onAfterLoad(new AfterLoadEvent<>(document, Profile.class, "profiles"));
+        Profile loaded = converter.read(Profile.class, document);
+
+        assertEquals(LARGE_VALUE, loaded.getSections().get(0).getElements().get(0).getValue());
+        assertEquals(ProfileContentHasher.hash(profile), ProfileContentHasher.hash(loaded));
+    }
+
+    @Test
+    void Should_KeepValue_If_ValueDoesNotShrink() {
+        String random = "a1B2c3D4e5F6g7H8";
+        Document element = new Document("value", random);
+
+        new ProfileValueCompression(meterRegistry, 8).compressElement(element);
+
+        assertEquals(random, element.get("value"));
+    }
+
+    private static Profile generateProfileWithLargeValue() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        ((StringElement) profile.getSections().get(0).getElements().get(0)).setValue(LARGE_VALUE);
+        return profile;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document element(Document profile, int section, int element) {
+        Document sectionDocument = ((List<Document>) profile.get("sections")).get(section);
+        return ((List<Document>) sectionDocument.get("elements")).get(element);
+    }
+
+    private static MappingMongoConverter createConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private Document write(Profile profile) {
+        Document document = new Document();
+        converter.write(profile, document);
+        return document;
+    }
+}
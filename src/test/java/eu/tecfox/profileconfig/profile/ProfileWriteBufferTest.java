@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.tecfox.profileconfig.profile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfileWriteBufferTest {
+
+    static final Duration HOUR = Duration.ofHours(1);
+
+    ProfileService profileService = mock(ProfileService.class);
+
+    @Test
+    void Should_SaveOnlyLatestProfile_If_UserSavedRepeatedly() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, Duration.ZERO, HOUR, Duration.ZERO, 3, 100);
+        Profile first = generateProfile("user");
+        Profile latest = generateProfile("user");
+        buffer.buffer(first);
+        buffer.buffer(latest);
+        verify(profileService, never()).save(any());
+        assertSame(latest, buffer.findByUserId("user").orElseThrow());
+
+        buffer.flush();
+
+        verify(profileService).save(latest);
+        verify(profileService, never()).save(first);
+        when(profileService.findByUserId("user")).thenReturn(Optional.empty());
+        assertTrue(buffer.findByUserId("user").isEmpty());
+    }
+
+    @Test
+    void Should_KeepProfileBuffered_If_QuietPeriodNotOver() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, HOUR, HOUR, Duration.ZERO, 3, 100);
+        Profile profile = generateProfile("user");
+        buffer.buffer(profile);
+        buffer.flush();
+        verify(profileService, never()).save(any());
+
+        buffer.flushAll();
+        verify(profileService).save(profile);
+    }
+
+    @Test
+    void Should_SaveAllProfilesWithNextFlush_If_MaxSizeReached() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, HOUR, HOUR, Duration.ZERO, 3, 2);
+        buffer.buffer(generateProfile("user1"));
+        buffer.buffer(generateProfile("user2"));
+        verify(profileService, never()).save(any());
+
+        buffer.flush();
+        verify(profileService, times(2)).save(any());
+    }
+
+    @Test
+    void Should_SaveProfile_If_MaxAgeExceeded() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, HOUR, Duration.ZERO, Duration.ZERO, 3, 100);
+        Profile first = generateProfile("user");
+        Profile latest = generateProfile("user");
+        buffer.buffer(first);
+        buffer.buffer(latest);
+
+        buffer.flush();
+
+        verify(profileService).save(latest);
+        verify(profileService, never()).save(first);
+    }
+
+    @Test
+    void Should_KeepProfileBuffered_If_SaveFailed() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, Duration.ZERO, HOUR, Duration.ZERO, 3, 100);
+        Profile profile = generateProfile("user");
+        when(profileService.save(profile)).thenThrow(new IllegalStateException()).thenReturn(profile);
+        buffer.buffer(profile);
+
+        buffer.flush();
+        assertSame(profile, buffer.findByUserId("user").orElseThrow());
+
+        buffer.flush();
+        verify(profileService, times(2)).save(profile);
+        when(profileService.findByUserId("user")).thenReturn(Optional.empty());
+        assertTrue(buffer.findByUserId("user").isEmpty());
+    }
+
+    @Test
+    void Should_DelayRetry_If_SaveFailed() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, Duration.ZERO, HOUR, HOUR, 3, 100);
+        Profile profile = generateProfile("user");
+        when(profileService.save(profile)).thenThrow(new IllegalStateException());
+        buffer.buffer(profile);
+
+        buffer.flush();
+        buffer.flush();
+
+        verify(profileService).save(profile);
+        assertSame(profile, buffer.findByUserId("user").orElseThrow());
+    }
+
+    @Test
+    void Should_DropProfile_If_MaxAttemptsReached() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, Duration.ZERO, HOUR, Duration.ZERO, 3, 100);
+        Profile profile = generateProfile("user");
+        when(profileService.save(profile)).thenThrow(new IllegalStateException());
+        when(profileService.findByUserId("user")).thenReturn(Optional.empty());
+        buffer.buffer(profile);
+
+        buffer.flush();
+        buffer.flush();
+        assertSame(profile, buffer.findByUserId("user").orElseThrow());
+        buffer.flush();
+        buffer.flush();
+
+        verify(profileService, times(3)).save(profile);
+        assertTrue(buffer.findByUserId("user").isEmpty());
+    }
+
+    @Test
+    void Should_ThrowException_If_ProfileOfUserCannotBeFlushed() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, HOUR, HOUR, Duration.ZERO, 3, 100);
+        Profile profile = generateProfile("user");
+        when(profileService.save(profile)).thenThrow(new IllegalStateException());
+        buffer.buffer(profile);
+
+        assertThrows(IllegalStateException.class, () -> buffer.flush("user"));
+        assertSame(profile, buffer.findByUserId("user").orElseThrow());
+    }
+
+    @Test
+    void Should_SaveOnlyRequestedProfiles_If_UsersAreFlushed() throws IOException {
+        ProfileWriteBuffer buffer = new ProfileWriteBuffer(profileService, HOUR, HOUR, Duration.ZERO, 3, 100);
+        Profile requested = generateProfile("user1");
+        Profile other = generateProfile("user2");
+        buffer.buffer(requested);
+        buffer.buffer(other);
+
+        buffer.flush(List.of("user1", "user3", "user1"));
+
+        verify(profileService, times(1)).save(requested);
+        verify(profileService, never()).save(other);
+        assertSame(other, buffer.findByUserId("user2").orElseThrow());
+    }
+
+    private static Profile generateProfile(String userId) throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        profile.setUserId(userId);
+        return profile;
+    }
+}
@@ -20,15 +20,18 @@ import eu.tecfox.profileconfig.template.models.section.elements.DateRangeElement
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.tecfox.profileconfig.template.models.Template;
 import eu.tecfox.profileconfig.template.models.section.elements.DateElement;
 import eu.tecfox.profileconfig.template.models.section.elements.NestedElement;
 import eu.tecfox.profileconfig.template.models.section.elements.SectionElement;
 import eu.tecfox.profileconfig.template.models.section.elements.StringElement;
 import eu.tecfox.profileconfig.template.models.section.elements.StringListElement;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
 
 import org.junit.jupiter.api.Test;
 
@@ -137,4 +140,25 @@ class ProfileTest {
         assertEquals("userB", newProfile.getModifiedByUser());
     }
 
-}
\ No newline at end of file
+    @Test
+    void Should_NotChangeTemplate_If_MergedProfileIsChanged() throws IOException {
+        Template template = TestDataGenerator.generateValidTemplate();
+        String original = mapper.writeValueAsString(template);
+        Profile profile = new Profile();
+        profile.setSections(new ArrayList<>());
+
+        Profile merged = profile.mergedWith(template);
+        merged.getStyle().setPrimaryColor("000000");
+        merged.getHeader().setLogo("Changed");
+        merged.getFooter().getLeftSection().add("Changed");
+        merged.getSections().forEach(section -> section.getElements().forEach(element -> {
+            if (element instanceof StringElement stringElement) {
+                stringElement.setValue("Changed");
+            } else if (element instanceof StringListElement stringListElement) {
+                stringListElement.getValue().add("Changed");
+            }
+        }));
+
+        assertEquals(original, mapper.writeValueAsString(template));
+    }
+}
@@ -453,5 +453,49 @@ class ProfileValidatorTest {
         assertEquals("Element Name missing values.", violation.getMessage());
     }
 
+    @Test
+    void Should_ValidateOnlyChangedSections_If_ProfileMatchesTemplateVersion() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(3L);
+        profile.setTemplateVersion(3L);
+        profile.getSections().get(0).setElements(new ArrayList<>());
+        Section changed = profile.getSections().get(1).mergedWith(null);
+        assertTrue(new ProfileValidator().isValid(profile, List.of(changed), template, null));
+    }
+
+    @Test
+    void Should_BeInvalid_If_ChangedSectionIsInvalid() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(3L);
+        profile.setTemplateVersion(3L);
+        Section changed = profile.getSections().get(0).mergedWith(null);
+        changed.setElements(new ArrayList<>());
+        assertFalse(new ProfileValidator().isValid(profile, List.of(changed), template, null));
+    }
+
+    @Test
+    void Should_BeInvalid_If_ChangedSectionIsNotInTemplate() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(3L);
+        profile.setTemplateVersion(3L);
+        Section changed = profile.getSections().get(0).mergedWith(null);
+        changed.setIdentifier("12345");
+        assertFalse(new ProfileValidator().isValid(profile, List.of(changed), template, null));
+    }
+
+    @Test
+    void Should_ValidateWholeProfile_If_ProfileDoesNotMatchTemplateVersion() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setVersion(3L);
+        profile.setTemplateVersion(2L);
+        profile.getSections().get(0).setElements(new ArrayList<>());
+        Section changed = profile.getSections().get(1).mergedWith(null);
+        assertFalse(new ProfileValidator().isValid(profile, List.of(changed), template, null));
+    }
+
 
-}
\ No newline at end of file
+}
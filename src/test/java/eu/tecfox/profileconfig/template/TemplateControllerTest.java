@@ -18,30 +18,37 @@ package eu.tecfox.profileconfig.template;
 
 import eu.tecfox.profileconfig.testdata.TestDataGenerator;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.TemplateImpactReport;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(TemplateController.class)
+@Import(TemplatePayloadCache.class)
 @TestPropertySource(properties = {"spring.cloud.discovery.enabled=false"})
 class TemplateControllerTest {
 
@@ -53,6 +60,9 @@ class TemplateControllerTest {
     @MockBean
     TemplateService templateService;
 
+    @MockBean
+    TemplateImpactAnalyzer templateImpactAnalyzer;
+
     @Test
     void Should_GetTemplateIfExists() throws Exception {
         when(templateService.getTemplate()).thenReturn(Optional.of(new Template()));
@@ -61,6 +71,49 @@ class TemplateControllerTest {
             .andExpect(content().contentType("application/json"));
     }
 
+    @Test
+    void Should_ReturnNotModified_If_ETagMatches() throws Exception {
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setId("templateId");
+        template.setVersion(1L);
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        MvcResult result = this.mvc.perform(get("/api/template"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn();
+        String eTag = result.getResponse().getHeader("ETag");
+        this.mvc.perform(get("/api/template").header("If-None-Match", eTag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void Should_ReturnNewETag_If_TemplateVersionChanged() throws Exception {
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setId("templateId");
+        template.setVersion(1L);
+        when(templateService.getTemplate()).thenReturn(Optional.of(template));
+        String eTag = this.mvc.perform(get("/api/template")).andReturn().getResponse().getHeader("ETag");
+        Template updatedTemplate = TestDataGenerator.generateValidTemplate();
+        updatedTemplate.setId("templateId");
+        updatedTemplate.setVersion(2L);
+        updatedTemplate.setTitle("New Title");
+        when(templateService.getTemplate()).thenReturn(Optional.of(updatedTemplate));
+        MvcResult result = this.mvc.perform(get("/api/template").header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertNotEquals(eTag, result.getResponse().getHeader("ETag"));
+        Template resultTemplate = mapper.readValue(result.getResponse().getContentAsString(), Template.class);
+        assertEquals("New Title", resultTemplate.getTitle());
+    }
+
+    @Test
+    void Should_ReturnCompressedTemplate_If_GzipIsAccepted() throws Exception {
+        when(templateService.getTemplate()).thenReturn(Optional.of(TestDataGenerator.generateValidTemplate()));
+        this.mvc.perform(get("/api/template").header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
     @Test
     void Should_ReturnExceptionIsNoTemplateExists() throws Exception {
         when(templateService.getTemplate()).thenReturn(Optional.empty());
@@ -91,4 +144,18 @@ class TemplateControllerTest {
                 .contentType("application/json"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void Should_ReturnImpactReport_If_TemplateIsValid() throws Exception {
+        Template template = TestDataGenerator.generateValidTemplate();
+        when(templateImpactAnalyzer.analyze(any())).thenReturn(
+            new TemplateImpactReport(10, 2, 1, 3, 0, List.of("a", "b"), List.of("a"), 5));
+        this.mvc.perform(post("/api/template/impact")
+                .content(mapper.writeValueAsString(template))
+                .contentType("application/json"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.profilesChecked").value(10))
+            .andExpect(jsonPath("$.invalidProfiles").value(2))
+            .andExpect(jsonPath("$.invalidUserIds[1]").value("b"));
+    }
+}
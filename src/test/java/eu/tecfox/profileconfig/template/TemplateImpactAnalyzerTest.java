@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import eu.tecfox.profileconfig.profile.ProfileRepository;
+import eu.tecfox.profileconfig.profile.ProfileServiceImpl;
+import eu.tecfox.profileconfig.profile.models.Profile;
+import eu.tecfox.profileconfig.profile.models.ProfileValidator;
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.template.models.TemplateImpactReport;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TemplateImpactAnalyzerTest {
+
+    ProfileRepository profileRepository = mock(ProfileRepository.class);
+    TemplateService templateService = mock(TemplateService.class);
+    TemplateImpactAnalyzer templateImpactAnalyzer = new TemplateImpactAnalyzer(profileRepository,
+        new ProfileServiceImpl(profileRepository, templateService, new ProfileValidator(),
+            mock(ApplicationEventPublisher.class)),
+        new ProfileValidator(), templateService);
+
+    @Test
+    void Should_ReportNoImpact_If_ProfilesMatchTemplate() throws IOException {
+        when(profileRepository.streamByTemplateKey(any())).thenReturn(generateProfiles(3));
+        TemplateImpactReport report = templateImpactAnalyzer.analyze(TestDataGenerator.generateValidTemplate());
+        assertEquals(3, report.profilesChecked());
+        assertEquals(0, report.invalidProfiles());
+        assertEquals(0, report.profilesLosingValues());
+        assertEquals(0, report.mergeFailures());
+    }
+
+    @Test
+    void Should_ReportInvalidProfilesAndLostValues_If_SectionIsRemoved() throws IOException {
+        int profileCount = TemplateImpactAnalyzer.BATCH_SIZE + 1;
+        when(profileRepository.streamByTemplateKey(any())).thenReturn(generateProfiles(profileCount));
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.getSections().remove(1);
+        TemplateImpactReport report = templateImpactAnalyzer.analyze(template);
+        assertEquals(profileCount, report.profilesChecked());
+        assertEquals(profileCount, report.invalidProfiles());
+        assertEquals(profileCount, report.profilesLosingValues());
+        assertEquals(profileCount * 5L, report.valuesLost());
+        assertEquals(TemplateImpactAnalyzer.SAMPLE_SIZE, report.invalidUserIds().size());
+    }
+
+    @Test
+    void Should_CountFilledValues() throws IOException {
+        Profile profile = TestDataGenerator.generateValidProfile();
+        assertEquals(18, TemplateImpactAnalyzer.countValues(profile.getSections()));
+        assertEquals(0, TemplateImpactAnalyzer.countValues(TestDataGenerator.generateValidTemplate().getSections()));
+    }
+
+    private Stream<Profile> generateProfiles(int count) throws IOException {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i: IntStream.range(0, count).toArray()) {
+            Profile profile = TestDataGenerator.generateValidProfile();
+            profile.setUserId("user" + i);
+            profiles.add(profile);
+        }
+        return profiles.stream();
+    }
+}
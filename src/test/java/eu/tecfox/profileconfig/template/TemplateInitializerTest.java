@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.tecfox.profileconfig.template;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import eu.tecfox.profileconfig.template.models.Template;
+import eu.tecfox.profileconfig.testdata.TestDataGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TemplateInitializerTest {
+
+    TemplateService templateService = mock(TemplateService.class);
+
+    @Test
+    void Should_SaveInitialTemplateFromClasspath_If_NoTemplateExists() throws IOException {
+        when(templateService.getTemplate()).thenReturn(Optional.empty());
+        new TemplateInitializer(templateService).initTemplate();
+        ArgumentCaptor<Template> captor = ArgumentCaptor.forClass(Template.class);
+        verify(templateService).saveTemplate(captor.capture());
+        assertEquals("Qualifikationsprofil", captor.getValue().getTitle());
+        assertFalse(captor.getValue().getSections().isEmpty());
+    }
+
+    @Test
+    void Should_NotSaveInitialTemplate_If_TemplateExists() throws IOException {
+        when(templateService.getTemplate()).thenReturn(Optional.of(TestDataGenerator.generateValidTemplate()));
+        new TemplateInitializer(templateService).initTemplate();
+        verify(templateService, never()).saveTemplate(any());
+    }
+}
@@ -28,6 +28,7 @@ import eu.tecfox.profileconfig.template.models.Template;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -54,12 +55,14 @@ class TemplateServiceImplTest {
         registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
     }
 
-    TemplateServiceImplTest(@Autowired TemplateRepository templateRepository) {
-        this.templateService = new TemplateServiceImpl(templateRepository);
+    TemplateServiceImplTest(@Autowired TemplateRepository templateRepository,
+        @Autowired ApplicationEventPublisher eventPublisher) {
+        this.templateService = new TemplateServiceImpl(templateRepository, eventPublisher);
     }
 
     @Test
-    void Should_GetTemplateFromDatabase() {
+    void Should_GetTemplateFromDatabase() throws IOException {
+        new TemplateInitializer(templateService).initTemplate();
         Optional<Template> template = templateService.getTemplate();
         assertTrue(template.isPresent());
         Template result = template.get();
@@ -92,4 +95,17 @@ class TemplateServiceImplTest {
         assertFalse(keyIdentifier.isBlank());
         assertFalse(valueIdentifier.isBlank());
     }
-}
\ No newline at end of file
+
+    @Test
+    void Should_GetTemplateByKey_If_MultipleTemplatesExist() throws IOException {
+        Template template = TestDataGenerator.generateValidTemplate();
+        template.setKey("other");
+        Template saved = templateService.saveTemplate(template);
+        Template defaultTemplate = templateService.saveTemplate(TestDataGenerator.generateValidTemplate());
+
+        assertEquals(saved.getId(), templateService.getTemplate("other").orElseThrow().getId());
+        assertEquals(defaultTemplate.getId(), templateService.getTemplate().orElseThrow().getId());
+        assertEquals(saved.getId(), templateService.getTemplateById(saved.getId()).orElseThrow().getId());
+        assertTrue(templateService.getTemplate("missing").isEmpty());
+    }
+}
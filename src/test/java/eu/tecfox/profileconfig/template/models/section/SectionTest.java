@@ -56,4 +56,60 @@ class SectionTest {
         assertEquals(3, templateSection.getElements().size());
         assertEquals("test2", ((StringElement)((NestedElement)templateSection.getElements().get(2)).getValue().get(0)).getValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void Should_KeepValuesOfEachEntry_If_ElementsAreDuplicated() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        templateSection = TestDataGenerator.generateMergeTestSection(false, false);
+        profileSection = TestDataGenerator.generateMergeTestSection(true, false);
+        NestedElement deepCopy = objectMapper
+            .readValue(objectMapper.writeValueAsString(profileSection.getElements().get(1)), NestedElement.class);
+        ((StringElement)deepCopy.getValue().get(0)).setValue("test2");
+        profileSection.getElements().add(deepCopy);
+        templateSection.patch(profileSection);
+        NestedElement first = (NestedElement) templateSection.getElements().get(1);
+        NestedElement second = (NestedElement) templateSection.getElements().get(2);
+        assertNotSame(first, second);
+        assertEquals(" Nested Value", ((StringElement)first.getValue().get(0)).getValue());
+        assertEquals("test2", ((StringElement)second.getValue().get(0)).getValue());
+    }
+
+    @Test
+    void Should_RemoveDuplicatedElements_If_NoEntryExists() {
+        templateSection = TestDataGenerator.generateMergeTestSection(false, false);
+        profileSection = TestDataGenerator.generateMergeTestSection(true, false);
+        profileSection.getElements().remove(1);
+        templateSection.patch(profileSection);
+        assertEquals(1, templateSection.getElements().size());
+        assertEquals("First Value", ((StringElement)templateSection.getElements().get(0)).getValue());
+    }
+
+    @Test
+    void Should_CopyAllElements_If_Merged() {
+        templateSection = TestDataGenerator.generateMergeTestSection(false, true);
+        profileSection = TestDataGenerator.generateMergeTestSection(true, true);
+        profileSection.getElements().remove(1);
+        Section merged = templateSection.mergedWith(profileSection);
+        assertNotSame(templateSection.getElements(), merged.getElements());
+        assertNotSame(templateSection.getElements().get(0), merged.getElements().get(0));
+        assertNotSame(templateSection.getElements().get(1), merged.getElements().get(1));
+        assertEquals("First Value", ((StringElement)merged.getElements().get(0)).getValue());
+        assertNull(((StringElement)templateSection.getElements().get(0)).getValue());
+    }
+
+    @Test
+    void Should_MatchNestedValuesByIdentifier_If_EntryContainsUnknownValues() {
+        templateSection = TestDataGenerator.generateMergeTestSection(false, true);
+        profileSection = TestDataGenerator.generateMergeTestSection(true, true);
+        StringElement unknownValue = new StringElement();
+        unknownValue.setIdentifier("unknown");
+        unknownValue.setValue("Unknown Value");
+        NestedElement nestedEntry = (NestedElement) profileSection.getElements().get(1);
+        nestedEntry.getValue().add(0, unknownValue);
+        Section merged = templateSection.mergedWith(profileSection);
+        NestedElement nested = (NestedElement) merged.getElements().get(1);
+        assertEquals(1, nested.getValue().size());
+        assertEquals(" Nested Value", ((StringElement)nested.getValue().get(0)).getValue());
+        assertEquals(2, nestedEntry.getValue().size());
+    }
+}